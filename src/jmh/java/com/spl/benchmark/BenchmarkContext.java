@@ -0,0 +1,101 @@
+package com.spl.benchmark;
+
+import com.spl.SplApplication;
+import com.spl.entity.Car;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Boots the application without a web server on a private in-memory H2 database,
+ * so every benchmark trial starts from an empty schema, or on a reusable database on disk.
+ */
+final class BenchmarkContext {
+    static final int CARS_PER_PERSON = 100;
+    static final int MANUFACTURERS = 10;
+    static final int MODELS = 100;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties {@code name=value} pairs, added to or replacing the defaults;
+     *                   {@code name=} drops a default, e.g. the in-memory URL when a profile brings its own
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("spring.main.web-application-type", "none");
+        values.put("spring.main.banner-mode", "off");
+        values.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + UUID.randomUUID());
+        values.put("spring.jpa.show-sql", "false");
+        values.put("logging.level.root", "WARN");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            String value = property.substring(separator + 1);
+            if (value.isEmpty()) {
+                values.remove(property.substring(0, separator));
+            } else {
+                values.put(property.substring(0, separator), value);
+            }
+        }
+        String[] args = values.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SplApplication.class).run(args);
+    }
+
+    /**
+     * Starts with the {@code file} profile on the H2 database {@code target/benchmark-h2/<name>}, seeding it with
+     * {@code rows} cars when it is empty. Later trials and runs reuse the files, as a restarted server would.
+     */
+    static ConfigurableApplicationContext startOnDisk(String name, int rows, String... properties) {
+        String[] onDisk = Stream.concat(Stream.of(
+                        "spring.profiles.active=file",
+                        "spring.datasource.url=",
+                        "garage.h2.path=" + Path.of("target", "benchmark-h2", name).toAbsolutePath()),
+                Stream.of(properties)).toArray(String[]::new);
+        ConfigurableApplicationContext context = start(onDisk);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        if (jdbc.queryForObject("select count(*) from cars", Long.class) == 0) {
+            seed(jdbc, rows);
+            jdbc.execute("analyze");
+        }
+        return context;
+    }
+
+    /**
+     * Fills empty {@code persons} and {@code cars} tables in the database, since going through JPA would spend
+     * the whole trial on seeding: {@code rows} cars, {@value #CARS_PER_PERSON} per person,
+     * spread over {@value #MANUFACTURERS} manufacturers and {@value #MODELS} models each.
+     *
+     * @return the number of persons, whose ids run from 1
+     */
+    static int seed(JdbcTemplate jdbc, int rows) {
+        int persons = Math.max(1, rows / CARS_PER_PERSON);
+        jdbc.update("insert into persons (id, first_name, last_name, version) "
+                + "select x, 'Alex', 'Cole', 0 from system_range(1, ?)", persons);
+        jdbc.update("insert into cars (vin, number, manufacturer, model, person_id, version) "
+                + "select 'BENCH' || lpad(x, 12, '0'), 'B' || lpad(x, 9, '0'), "
+                + "'Make' || mod(x, ?), 'Model' || mod(x / ?, ?), mod(x, ?) + 1, 0 "
+                + "from system_range(1, ?)", MANUFACTURERS, MANUFACTURERS, MODELS, persons, rows);
+        return persons;
+    }
+
+    static Car car(long sequence, Long owner) {
+        return Car.builder()
+                .vin(format("BENCH%012d", sequence))
+                .number(format("B%09d", sequence))
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(owner)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import com.spl.repository.CarFilter;
+import com.spl.service.CarService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.spl.benchmark.BenchmarkContext.MANUFACTURERS;
+import static com.spl.benchmark.BenchmarkContext.MODELS;
+import static java.lang.String.format;
+
+/**
+ * {@link CarService#search} over a large {@code cars} table, with the search indexes in place and dropped.
+ * The H2 plan of every query is printed at the start of a trial, so the output shows which index served it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CarSearchBenchmark {
+    static final int PAGE = 100;
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    ConfigurableApplicationContext context;
+
+    CarService service;
+
+    int persons;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        service = context.getBean(CarService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        persons = BenchmarkContext.seed(jdbc, rows);
+        if (!indexed) {
+            // H2 lets the owner foreign key use the person_id index, and would index it again on its own
+            jdbc.queryForList("select constraint_name from information_schema.table_constraints "
+                            + "where table_name = 'CARS' and constraint_type = 'FOREIGN KEY'", String.class)
+                    .forEach(constraint -> jdbc.execute(format("alter table cars drop constraint \"%s\"", constraint)));
+            jdbc.execute("drop index cars_person_id_idx");
+            jdbc.execute("drop index cars_manufacturer_model_idx");
+        }
+        jdbc.execute("analyze");
+        explain(jdbc, "owner", "select * from cars where person_id = 1 and vin > '' order by vin limit 100");
+        explain(jdbc, "manufacturer+model",
+                "select * from cars where manufacturer = 'Make1' and model = 'Model1' and vin > '' order by vin limit 100");
+        explain(jdbc, "numberPrefix", "select * from cars where number like 'B00012%' and vin > '' order by vin limit 100");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Car> byOwner() {
+        long owner = ThreadLocalRandom.current().nextInt(persons) + 1L;
+        return service.search(new CarFilter(null, null, owner, null), null, PAGE);
+    }
+
+    @Benchmark
+    public List<Car> byManufacturerAndModel() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CarFilter filter = new CarFilter("Make" + random.nextInt(MANUFACTURERS), "Model" + random.nextInt(MODELS), null, null);
+        return service.search(filter, null, PAGE);
+    }
+
+    @Benchmark
+    public List<Car> byNumberPrefix() {
+        String prefix = format("B%09d", ThreadLocalRandom.current().nextInt(rows) + 1).substring(0, 7);
+        return service.search(new CarFilter(null, null, null, prefix), null, PAGE);
+    }
+
+    private static void explain(JdbcTemplate jdbc, String name, String sql) {
+        String plan = jdbc.queryForObject("explain " + sql, String.class);
+        System.out.printf("%n[%s] %s%n", name, plan.replaceAll("\\s+", " "));
+    }
+}
@@ -0,0 +1,78 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * {@link CarService} lookups and writes against embedded H2, with and without the Hibernate second-level cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CarServiceBenchmark {
+    static final int CARS = 1_000;
+
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    ConfigurableApplicationContext context;
+
+    CarService service;
+
+    Long owner;
+
+    AtomicLong sequence = new AtomicLong(CARS);
+
+    AtomicLong numbers = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        service = context.getBean(CarService.class);
+        owner = context.getBean(PersonService.class).add(new Person(null, "Alex", "Cole")).getId();
+        for (long i = 0; i < CARS; i++) {
+            service.add(BenchmarkContext.car(i, owner));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Car findCar() {
+        return service.findCar(randomCar().getVin());
+    }
+
+    @Benchmark
+    public Car add() {
+        return service.add(BenchmarkContext.car(sequence.incrementAndGet(), owner));
+    }
+
+    @Benchmark
+    public Car updateCar() {
+        Car car = randomCar();
+        car.setNumber(format("U%09d", numbers.incrementAndGet()));
+        return service.updateCar(car.getVin(), car, null);
+    }
+
+    private Car randomCar() {
+        return BenchmarkContext.car(ThreadLocalRandom.current().nextLong(CARS), owner);
+    }
+}
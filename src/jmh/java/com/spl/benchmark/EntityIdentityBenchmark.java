@@ -0,0 +1,70 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set operations on the cars of an owner and hashing and printing of the owner, as the number of cars grows.
+ * With identity on the primary key every operation should cost the same whatever the size of the owner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EntityIdentityBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int carsPerPerson;
+
+    Person person;
+
+    Set<Person> persons;
+
+    Car owned;
+
+    Car extra;
+
+    @Setup
+    public void setUp() {
+        person = new Person(1L, "Alex", "Cole");
+        for (int i = 0; i < carsPerPerson; i++) {
+            person.addCar(BenchmarkContext.car(i, 1L));
+        }
+        persons = new HashSet<>(Set.of(person));
+        owned = BenchmarkContext.car(carsPerPerson / 2, 1L);
+        extra = BenchmarkContext.car(carsPerPerson, 1L);
+    }
+
+    @Benchmark
+    public boolean containsCar() {
+        return person.getCars().contains(owned);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveCar() {
+        person.getCars().add(extra);
+        return person.getCars().remove(extra);
+    }
+
+    @Benchmark
+    public boolean containsPerson() {
+        return persons.contains(person);
+    }
+
+    @Benchmark
+    public int hashPerson() {
+        return person.hashCode();
+    }
+
+    @Benchmark
+    public String printPerson() {
+        return person.toString();
+    }
+}
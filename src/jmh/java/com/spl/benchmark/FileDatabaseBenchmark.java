@@ -0,0 +1,70 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import com.spl.repository.CarFilter;
+import com.spl.service.CarService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Reads from the {@code file} profile's on-disk H2 database holding the production-sized car table, for several
+ * page cache ({@code CACHE_SIZE}, KB) and page split ({@code PAGE_SIZE}, bytes) settings. Hibernate's caches are off,
+ * so every call reaches the database. Each page size has its own database files, seeded on first use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class FileDatabaseBenchmark {
+    static final int PAGE = 100;
+
+    @Param({"2000000"})
+    int rows;
+
+    @Param({"16384", "65536", "262144"})
+    int cacheSize;
+
+    @Param({"4096", "16384"})
+    int pageSize;
+
+    ConfigurableApplicationContext context;
+
+    CarService service;
+
+    int persons;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.startOnDisk(format("cars-%d-page-%d", rows, pageSize), rows,
+                "garage.h2.cache-size=" + cacheSize,
+                "garage.h2.page-size=" + pageSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        service = context.getBean(CarService.class);
+        persons = Math.max(1, rows / BenchmarkContext.CARS_PER_PERSON);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Car findCar() {
+        return service.findCar(format("BENCH%012d", ThreadLocalRandom.current().nextInt(rows) + 1));
+    }
+
+    @Benchmark
+    public List<Car> byOwner() {
+        long owner = ThreadLocalRandom.current().nextInt(persons) + 1L;
+        return service.search(new CarFilter(null, null, owner, null), null, PAGE);
+    }
+}
@@ -0,0 +1,83 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code com.spl.metrics} and Hibernate statistics on the car lookup, with {@code garage.metrics.enabled}
+ * on and off: once through HTTP, as clients see it, and once as a bare service call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MetricsOverheadBenchmark {
+    static final int CARS = 1_000;
+
+    @Param({"true", "false"})
+    boolean metrics;
+
+    ConfigurableApplicationContext context;
+
+    CarService service;
+
+    HttpClient client;
+
+    String baseUrl;
+
+    String authorization;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(
+                "spring.main.web-application-type=servlet",
+                "server.port=0",
+                "garage.metrics.enabled=" + metrics);
+        service = context.getBean(CarService.class);
+        Long owner = context.getBean(PersonService.class).add(new Person(null, "Alex", "Cole")).getId();
+        for (long i = 0; i < CARS; i++) {
+            service.add(BenchmarkContext.car(i, owner));
+        }
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/cars/";
+        authorization = "Basic " + Base64.getEncoder().encodeToString("user1:password1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public String findCarOverHttp() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + randomCar().getVin()))
+                .header("Authorization", authorization)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public Car findCar() {
+        return service.findCar(randomCar().getVin());
+    }
+
+    private static Car randomCar() {
+        return BenchmarkContext.car(ThreadLocalRandom.current().nextInt(CARS), null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.spl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spl.entity.Person;
+import com.spl.service.BulkImportService;
+import com.spl.service.BulkResult;
+import com.spl.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Person insert rate for one id per sequence call against pooled id blocks,
+ * through single adds and through the bulk import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersonInsertBenchmark {
+    static final int BULK_ROWS = 500;
+
+    @Param({"1", "50"})
+    int blockSize;
+
+    ConfigurableApplicationContext context;
+
+    PersonService service;
+
+    BulkImportService bulkImportService;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    String bulkPayload;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("spring.jpa.properties.garage.id.block-size=" + blockSize);
+        service = context.getBean(PersonService.class);
+        bulkImportService = context.getBean(BulkImportService.class);
+        bulkPayload = "{\"firstName\":\"Alex\",\"lastName\":\"Cole\"}\n".repeat(BULK_ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Person add() {
+        return service.add(new Person(null, "Alex", "Cole"));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_ROWS)
+    public BulkResult importPersons() throws IOException {
+        return bulkImportService.importPersons(objectMapper.readerFor(Person.class).readValues(bulkPayload));
+    }
+}
@@ -0,0 +1,54 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Person;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PersonService#findAll()} for a fixed number of owners with a growing number of cars each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersonServiceBenchmark {
+    static final int PERSONS = 100;
+
+    @Param({"1", "10", "100"})
+    int carsPerPerson;
+
+    ConfigurableApplicationContext context;
+
+    PersonService service;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        service = context.getBean(PersonService.class);
+        CarService cars = context.getBean(CarService.class);
+        long sequence = 0;
+        for (int i = 0; i < PERSONS; i++) {
+            Long owner = service.add(new Person(null, "Alex", "Cole")).getId();
+            for (int j = 0; j < carsPerPerson; j++) {
+                cars.add(BenchmarkContext.car(sequence++, owner));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> findAll() {
+        return service.findAll();
+    }
+}
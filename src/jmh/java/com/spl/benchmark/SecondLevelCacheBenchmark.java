@@ -0,0 +1,82 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarFilter;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeated lookups with the Hibernate second-level and query caches on and off. Every call opens a persistence
+ * context; the working set fits the cache regions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 8, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SecondLevelCacheBenchmark {
+    static final int PERSONS = 1_000;
+    static final int CARS_PER_PERSON = 10;
+
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    ConfigurableApplicationContext context;
+
+    CarService cars;
+
+    PersonService persons;
+
+    Long firstOwner;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        cars = context.getBean(CarService.class);
+        persons = context.getBean(PersonService.class);
+        long sequence = 0;
+        for (int i = 0; i < PERSONS; i++) {
+            Long owner = persons.add(new Person(null, "Alex", "Cole")).getId();
+            if (firstOwner == null) {
+                firstOwner = owner;
+            }
+            for (int j = 0; j < CARS_PER_PERSON; j++) {
+                cars.add(BenchmarkContext.car(sequence++, owner));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Car findCar() {
+        return cars.findCar(BenchmarkContext.car(ThreadLocalRandom.current().nextLong(PERSONS * CARS_PER_PERSON), null).getVin());
+    }
+
+    @Benchmark
+    public Person findPerson() {
+        return persons.findById(randomOwner());
+    }
+
+    @Benchmark
+    public List<Car> searchByOwner() {
+        return cars.search(new CarFilter(null, null, randomOwner(), null), null, 100);
+    }
+
+    private long randomOwner() {
+        return firstOwner + ThreadLocalRandom.current().nextInt(PERSONS);
+    }
+}
@@ -0,0 +1,49 @@
+package com.spl.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the API payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    @Param({"0", "10", "100"})
+    int carsPerPerson;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    Car car;
+
+    Person person;
+
+    @Setup
+    public void setUp() {
+        car = BenchmarkContext.car(1, 1L);
+        person = new Person(1L, "Alex", "Cole");
+        for (int i = 0; i < carsPerPerson; i++) {
+            person.addCar(BenchmarkContext.car(i, 1L));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeCar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(car);
+    }
+
+    @Benchmark
+    public byte[] writePerson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(person);
+    }
+}
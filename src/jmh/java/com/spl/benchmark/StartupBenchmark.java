@@ -0,0 +1,55 @@
+package com.spl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Time from a cold JVM to a started application on the {@code file} profile's database holding the
+ * production-sized car table: with Flyway and {@code ddl-auto=validate}, as configured, against the former
+ * {@code ddl-auto=update}, which diffs the mapping against the database metadata on every start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 5, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    @Param({"2000000"})
+    int rows;
+
+    @Param({"validate", "update"})
+    String ddlAuto;
+
+    ConfigurableApplicationContext context;
+
+    /**
+     * Seeds the database on the first run, then closes it, so the measured start opens it from disk.
+     */
+    @Setup(Level.Trial)
+    public void seed() {
+        BenchmarkContext.startOnDisk(name(), rows).close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = BenchmarkContext.startOnDisk(name(), rows,
+                "spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "spring.flyway.enabled=" + "validate".equals(ddlAuto));
+        return context;
+    }
+
+    private String name() {
+        return format("cars-%d-page-4096", rows);
+    }
+}
@@ -0,0 +1,54 @@
+package com.spl.benchmark;
+
+import com.spl.entity.Car;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of a {@link Car} body, for the accepted and the rejected path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ValidationBenchmark {
+
+    ValidatorFactory factory;
+
+    Validator validator;
+
+    Car valid;
+
+    Car invalid;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = BenchmarkContext.car(1, 1L);
+        invalid = Car.builder().vin("KL1NF193E6").number("A").manufacturer("").model("Lacetti").owner(0L).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Car>> validCar() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Car>> invalidCar() {
+        return validator.validate(invalid);
+    }
+}
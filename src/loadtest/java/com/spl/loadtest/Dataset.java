@@ -0,0 +1,125 @@
+package com.spl.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * The persons and cars seeded before the run. Seeded rows are only read and updated, never deleted,
+ * so reads against them always hit. Generated VINs and numbers carry a per-run prefix, which keeps
+ * repeated runs against the same database apart.
+ */
+final class Dataset {
+    private final String run;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final List<Long> persons = new ArrayList<>();
+
+    private final List<String> vins = new ArrayList<>();
+
+    private final List<Long> owners = new ArrayList<>();
+
+    private Dataset() {
+        Random random = new Random();
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            prefix.append((char) ('A' + random.nextInt(26)));
+        }
+        run = prefix.toString();
+    }
+
+    static Dataset seed(GarageClient client, ObjectMapper mapper, int persons, int carsPerPerson)
+            throws IOException, InterruptedException {
+        Dataset dataset = new Dataset();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < persons; i++) {
+            body.append(dataset.person()).append('\n');
+        }
+        expectAccepted(mapper, client.post("persons/bulk", GarageClient.NDJSON, body.toString()));
+
+        HttpResponse<byte[]> stream = client.get("persons", GarageClient.NDJSON);
+        for (String line : new String(stream.body(), StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                dataset.persons.add(mapper.readTree(line).get("id").asLong());
+            }
+        }
+
+        body.setLength(0);
+        for (Long owner : dataset.persons.subList(dataset.persons.size() - persons, dataset.persons.size())) {
+            for (int i = 0; i < carsPerPerson; i++) {
+                String vin = dataset.nextVin();
+                body.append(dataset.car(vin, owner)).append('\n');
+                dataset.vins.add(vin);
+                dataset.owners.add(owner);
+            }
+        }
+        expectAccepted(mapper, client.post("cars/bulk", GarageClient.NDJSON, body.toString()));
+        return dataset;
+    }
+
+    static boolean accepted(ObjectMapper mapper, HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            return false;
+        }
+        JsonNode result = mapper.readTree(response.body());
+        return result.get("rejected").isEmpty();
+    }
+
+    private static void expectAccepted(ObjectMapper mapper, HttpResponse<byte[]> response) throws IOException {
+        if (!accepted(mapper, response)) {
+            throw new IllegalStateException(format("Seeding failed with %d: %s",
+                    response.statusCode(), new String(response.body(), StandardCharsets.UTF_8)));
+        }
+    }
+
+    int cars() {
+        return vins.size();
+    }
+
+    Long randomPerson() {
+        return persons.get(ThreadLocalRandom.current().nextInt(persons.size()));
+    }
+
+    /**
+     * Index of a random seeded car, for {@link #vin(int)} and {@link #owner(int)}.
+     */
+    int randomCar() {
+        return ThreadLocalRandom.current().nextInt(vins.size());
+    }
+
+    String vin(int car) {
+        return vins.get(car);
+    }
+
+    Long owner(int car) {
+        return owners.get(car);
+    }
+
+    String nextVin() {
+        return format("L%s%012d", run, sequence.incrementAndGet());
+    }
+
+    String nextNumber() {
+        return format("%s%06d", run, sequence.incrementAndGet() % 1_000_000);
+    }
+
+    String car(String vin, Long owner) {
+        return format("{\"vin\":\"%s\",\"number\":\"%s\",\"manufacturer\":\"Chevrolet\",\"model\":\"Lacetti\",\"owner\":%d}",
+                vin, nextNumber(), owner);
+    }
+
+    String person() {
+        return "{\"firstName\":\"Alex\",\"lastName\":\"Cole\"}";
+    }
+}
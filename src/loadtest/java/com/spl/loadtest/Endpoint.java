@@ -0,0 +1,60 @@
+package com.spl.loadtest;
+
+/**
+ * Every route of the API with its share of the request mix. Reads dominate, as they do in production;
+ * full listings and streams are rare because their cost grows with the dataset.
+ */
+enum Endpoint {
+    FIND_CAR("GET /cars/{vin}", 25),
+    FIND_CAR_OWNER("GET /cars/{vin}/owner", 10),
+    LIST_CARS_PAGE("GET /cars?limit&after", 5),
+    LIST_CARS("GET /cars", 1),
+    STREAM_CARS("GET /cars (ndjson)", 1),
+    ADD_CAR("POST /cars", 5),
+    ADD_CARS_BULK("POST /cars/bulk", 1),
+    UPDATE_CAR("PUT /cars/{vin}", 4),
+    UPSERT_CAR("PUT /cars/{vin}?upsert=true", 2),
+    DELETE_CAR("DELETE /cars/{vin}", 3),
+    FIND_PERSON("GET /persons/{id}", 15),
+    FIND_PERSON_CARS("GET /persons/{id}/cars", 10),
+    LIST_PERSONS_PAGE("GET /persons?limit&after", 5),
+    LIST_PERSONS("GET /persons", 1),
+    STREAM_PERSONS("GET /persons (ndjson)", 1),
+    ADD_PERSON("POST /persons", 4),
+    ADD_PERSONS_BULK("POST /persons/bulk", 1),
+    UPDATE_PERSON("PUT /persons/{id}", 3),
+    DELETE_PERSON("DELETE /persons/{id}", 2);
+
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (Endpoint endpoint : values()) {
+            total += endpoint.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    final String route;
+
+    final int weight;
+
+    Endpoint(String route, int weight) {
+        this.route = route;
+        this.weight = weight;
+    }
+
+    /**
+     * Picks an endpoint for a uniformly distributed {@code draw} in {@code [0, 1)}.
+     */
+    static Endpoint pick(double draw) {
+        int target = (int) (draw * TOTAL_WEIGHT);
+        for (Endpoint endpoint : values()) {
+            target -= endpoint.weight;
+            if (target < 0) {
+                return endpoint;
+            }
+        }
+        return FIND_CAR;
+    }
+}
@@ -0,0 +1,162 @@
+package com.spl.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spl.SplApplication;
+import com.spl.reactive.ReactiveSplApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Open-model HTTP load test covering every API route with a read-heavy mix.
+ * Prints throughput and p50/p99/p999 latency per endpoint, writes them as JSON and exits with
+ * status 1 when an endpoint breaks its SLO (see {@link Settings}), which fails the Maven build.
+ * <p>
+ * Without a {@code url} the application ({@code stack=servlet} or {@code stack=reactive}) is booted in this JVM,
+ * so client and server share the machine;
+ * point {@code url} at a separately started instance for numbers meant for capacity planning.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        ConfigurableApplicationContext context = null;
+        URI baseUri;
+        if (settings.url.isEmpty()) {
+            String database = "loadtest-" + UUID.randomUUID();
+            List<String> applicationArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.main.banner-mode=off",
+                    "--spring.datasource.url=jdbc:h2:mem:" + database,
+                    "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN"));
+            applicationArgs.addAll(settings.application);
+            SpringApplicationBuilder application = "reactive".equals(settings.stack)
+                    ? new SpringApplicationBuilder(ReactiveSplApplication.class)
+                            .web(WebApplicationType.REACTIVE)
+                            .profiles(ReactiveSplApplication.PROFILE)
+                    : new SpringApplicationBuilder(SplApplication.class);
+            context = application.run(applicationArgs.toArray(String[]::new));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUri = URI.create("http://localhost:" + port + "/api/");
+        } else {
+            baseUri = URI.create(settings.url.endsWith("/") ? settings.url : settings.url + "/");
+        }
+
+        boolean passed;
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            GarageClient client = new GarageClient(baseUri, settings.user, settings.password);
+            Dataset dataset = Dataset.seed(client, mapper, settings.persons, settings.carsPerPerson);
+            System.out.printf("Seeded %d persons and %d cars, offering %.1f req/s from %d workers%n",
+                    settings.persons, dataset.cars(), settings.rate, settings.threads);
+
+            run(settings, client, mapper, dataset, settings.warmupSeconds);
+            Recorder result = run(settings, client, mapper, dataset, settings.durationSeconds);
+            passed = report(settings, mapper, result);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static Recorder run(Settings settings, GarageClient client, ObjectMapper mapper, Dataset dataset, int seconds)
+            throws Exception {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * settings.threads / settings.rate);
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads);
+        try {
+            List<Future<Recorder>> workers = new ArrayList<>();
+            for (int i = 0; i < settings.threads; i++) {
+                workers.add(executor.submit(new Worker(client, mapper, dataset, intervalNanos, startNanos, endNanos)));
+            }
+            Recorder result = new Recorder();
+            for (Future<Recorder> worker : workers) {
+                result.merge(worker.get());
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean report(Settings settings, ObjectMapper mapper, Recorder result) throws Exception {
+        boolean passed = true;
+        ArrayNode json = mapper.createArrayNode();
+        System.out.printf("%n%-30s %8s %7s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (Map.Entry<Endpoint, Recorder.Samples> entry : result.samples().entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            Recorder.Samples samples = entry.getValue();
+            Settings.Slo slo = settings.slos.get(endpoint);
+            List<String> breaches = new ArrayList<>();
+            if (samples.percentile(0.99) > slo.p99) {
+                breaches.add(format("p99 above %d ms", slo.p99));
+            }
+            if (samples.percentile(0.999) > slo.p999) {
+                breaches.add(format("p999 above %d ms", slo.p999));
+            }
+            if ((double) samples.errors() / samples.count() > slo.errors) {
+                breaches.add(format("error rate above %.3f%%", slo.errors * 100));
+            }
+            passed &= breaches.isEmpty();
+            print(endpoint.route, samples, settings.durationSeconds, breaches);
+            ObjectNode node = json.addObject();
+            node.put("endpoint", endpoint.name());
+            node.put("route", endpoint.route);
+            write(node, samples, settings.durationSeconds);
+            node.putPOJO("sloBreaches", breaches);
+        }
+        Recorder.Samples total = result.total();
+        print("Total", total, settings.durationSeconds, List.of());
+        write(json.addObject().put("endpoint", "TOTAL"), total, settings.durationSeconds);
+
+        File report = new File(settings.report);
+        if (report.getParentFile() != null) {
+            report.getParentFile().mkdirs();
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(report, json);
+        System.out.printf("%nResult is saved to %s%n", report.getAbsolutePath());
+        System.out.println(passed ? "All endpoints within SLO" : "SLO breached");
+        return passed;
+    }
+
+    private static void print(String route, Recorder.Samples samples, int seconds, List<String> breaches) {
+        System.out.printf("%-30s %8d %7d %9.1f %9.1f %9.1f %9.1f %s%n",
+                route, samples.count(), samples.errors(), (double) samples.count() / seconds,
+                samples.percentile(0.5), samples.percentile(0.99), samples.percentile(0.999),
+                String.join(", ", breaches));
+    }
+
+    private static void write(ObjectNode node, Recorder.Samples samples, int seconds) {
+        node.put("requests", samples.count());
+        node.put("errors", samples.errors());
+        node.put("throughput", (double) samples.count() / seconds);
+        node.put("p50", samples.percentile(0.5));
+        node.put("p99", samples.percentile(0.99));
+        node.put("p999", samples.percentile(0.999));
+    }
+}
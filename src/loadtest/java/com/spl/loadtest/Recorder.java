@@ -0,0 +1,84 @@
+package com.spl.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint latency samples of one worker. Workers record without sharing anything and
+ * their recorders are merged once the run is over.
+ */
+final class Recorder {
+    private final Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+
+    void record(Endpoint endpoint, long latencyNanos, boolean success) {
+        samples.computeIfAbsent(endpoint, e -> new Samples()).add(latencyNanos, success);
+    }
+
+    Recorder merge(Recorder other) {
+        other.samples.forEach((endpoint, theirs) -> samples.computeIfAbsent(endpoint, e -> new Samples()).addAll(theirs));
+        return this;
+    }
+
+    Map<Endpoint, Samples> samples() {
+        return samples;
+    }
+
+    Samples total() {
+        Samples total = new Samples();
+        samples.values().forEach(total::addAll);
+        return total;
+    }
+
+    static final class Samples {
+        private long[] latencies = new long[256];
+
+        private int count;
+
+        private int errors;
+
+        private boolean sorted;
+
+        void add(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+            sorted = false;
+        }
+
+        void addAll(Samples other) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            sorted = false;
+        }
+
+        int count() {
+            return count;
+        }
+
+        int errors() {
+            return errors;
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds, e.g. {@code percentile(0.99)}.
+         */
+        double percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, count);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(quantile * count) - 1;
+            return latencies[Math.max(rank, 0)] / 1_000_000.0;
+        }
+    }
+}
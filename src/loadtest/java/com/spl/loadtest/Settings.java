@@ -0,0 +1,102 @@
+package com.spl.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, given as {@code name=value} program arguments.
+ * SLO limits apply to every endpoint and can be overridden per endpoint, e.g. {@code slo.p99.LIST_PERSONS=2000}.
+ * Arguments starting with {@code app.} configure the in-process application, e.g. {@code app.garage.threads.virtual=true}.
+ */
+final class Settings {
+    /** Target to load; when empty the application is booted in-process on a fresh in-memory database. */
+    final String url;
+
+    /** {@code servlet} or {@code reactive}: which application to boot in-process. */
+    final String stack;
+
+    final String user;
+
+    final String password;
+
+    /** Offered load in requests per second, spread evenly over the workers. */
+    final double rate;
+
+    final int threads;
+
+    final int warmupSeconds;
+
+    final int durationSeconds;
+
+    final int persons;
+
+    final int carsPerPerson;
+
+    final String report;
+
+    final Map<Endpoint, Slo> slos = new EnumMap<>(Endpoint.class);
+
+    /** Command-line arguments for the in-process application. */
+    final List<String> application = new ArrayList<>();
+
+    private Settings(Map<String, String> values) {
+        url = values.getOrDefault("url", "");
+        stack = values.getOrDefault("stack", "servlet");
+        user = values.getOrDefault("user", "user1");
+        password = values.getOrDefault("password", "password1");
+        rate = Double.parseDouble(values.getOrDefault("rate", "50"));
+        threads = Integer.parseInt(values.getOrDefault("threads", "16"));
+        warmupSeconds = Integer.parseInt(values.getOrDefault("warmup", "10"));
+        durationSeconds = Integer.parseInt(values.getOrDefault("duration", "60"));
+        persons = Integer.parseInt(values.getOrDefault("persons", "1000"));
+        carsPerPerson = Integer.parseInt(values.getOrDefault("carsPerPerson", "3"));
+        report = values.getOrDefault("report", "target/loadtest-result.json");
+        values.forEach((name, value) -> {
+            if (name.startsWith("app.")) {
+                application.add("--" + name.substring("app.".length()) + "=" + value);
+            }
+        });
+        for (Endpoint endpoint : Endpoint.values()) {
+            slos.put(endpoint, new Slo(
+                    Long.parseLong(value(values, "slo.p99", endpoint, "500")),
+                    Long.parseLong(value(values, "slo.p999", endpoint, "1000")),
+                    Double.parseDouble(value(values, "slo.errors", endpoint, "0.001"))));
+        }
+    }
+
+    static Settings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new Settings(values);
+    }
+
+    private static String value(Map<String, String> values, String name, Endpoint endpoint, String defaultValue) {
+        return values.getOrDefault(name + "." + endpoint.name(), values.getOrDefault(name, defaultValue));
+    }
+
+    /**
+     * Latency limits in milliseconds and the highest accepted share of failed requests.
+     */
+    static final class Slo {
+        final long p99;
+
+        final long p999;
+
+        final double errors;
+
+        Slo(long p99, long p999, double errors) {
+            this.p99 = p99;
+            this.p999 = p999;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.spl.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.spl.loadtest.GarageClient.JSON;
+import static com.spl.loadtest.GarageClient.NDJSON;
+
+/**
+ * Sends requests on a fixed schedule rather than back to back. Latency is measured from the moment a request
+ * was due, so a slow response also counts against the requests queued up behind it instead of silently
+ * lowering the offered load.
+ */
+final class Worker implements Callable<Recorder> {
+    private static final int BULK_ROWS = 20;
+
+    private static final int PAGE_SIZE = 100;
+
+    private final GarageClient client;
+
+    private final ObjectMapper mapper;
+
+    private final Dataset dataset;
+
+    private final long intervalNanos;
+
+    private final long startNanos;
+
+    private final long endNanos;
+
+    /** Rows created by this worker; only these are deleted, so workers never race on a delete. */
+    private final Deque<String> ownCars = new ArrayDeque<>();
+
+    private final Deque<Long> ownPersons = new ArrayDeque<>();
+
+    Worker(GarageClient client, ObjectMapper mapper, Dataset dataset, long intervalNanos, long startNanos, long endNanos) {
+        this.client = client;
+        this.mapper = mapper;
+        this.dataset = dataset;
+        this.intervalNanos = intervalNanos;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    @Override
+    public Recorder call() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long due = startNanos + random.nextLong(intervalNanos);
+        while (due < endNanos) {
+            long wait = due - System.nanoTime();
+            while (wait > 0) {
+                LockSupport.parkNanos(wait);
+                wait = due - System.nanoTime();
+            }
+            Endpoint endpoint = resolve(Endpoint.pick(random.nextDouble()));
+            boolean success;
+            try {
+                success = execute(endpoint);
+            } catch (IOException e) {
+                success = false;
+            }
+            recorder.record(endpoint, System.nanoTime() - due, success);
+            due += intervalNanos;
+        }
+        return recorder;
+    }
+
+    private Endpoint resolve(Endpoint endpoint) {
+        if (endpoint == Endpoint.DELETE_CAR && ownCars.isEmpty()) {
+            return Endpoint.ADD_CAR;
+        }
+        if (endpoint == Endpoint.DELETE_PERSON && ownPersons.isEmpty()) {
+            return Endpoint.ADD_PERSON;
+        }
+        return endpoint;
+    }
+
+    private boolean execute(Endpoint endpoint) throws IOException, InterruptedException {
+        int car = dataset.randomCar();
+        switch (endpoint) {
+            case FIND_CAR:
+                return ok(client.get("cars/" + dataset.vin(car), JSON));
+            case FIND_CAR_OWNER:
+                return ok(client.get("cars/" + dataset.vin(car) + "/owner", JSON));
+            case LIST_CARS_PAGE:
+                return ok(client.get("cars?limit=" + PAGE_SIZE + "&after=" + dataset.vin(car), JSON));
+            case LIST_CARS:
+                return ok(client.get("cars", JSON));
+            case STREAM_CARS:
+                return ok(client.get("cars", NDJSON));
+            case ADD_CAR: {
+                String vin = dataset.nextVin();
+                boolean success = ok(client.post("cars", JSON, dataset.car(vin, dataset.randomPerson())));
+                if (success) {
+                    ownCars.push(vin);
+                }
+                return success;
+            }
+            case ADD_CARS_BULK: {
+                StringBuilder body = new StringBuilder();
+                String[] vins = new String[BULK_ROWS];
+                for (int i = 0; i < BULK_ROWS; i++) {
+                    vins[i] = dataset.nextVin();
+                    body.append(dataset.car(vins[i], dataset.randomPerson())).append('\n');
+                }
+                boolean success = Dataset.accepted(mapper, client.post("cars/bulk", NDJSON, body.toString()));
+                if (success) {
+                    for (String vin : vins) {
+                        ownCars.push(vin);
+                    }
+                }
+                return success;
+            }
+            case UPDATE_CAR:
+                return ok(client.put("cars/" + dataset.vin(car), dataset.car(dataset.vin(car), dataset.owner(car))));
+            case UPSERT_CAR: {
+                String vin = ownCars.isEmpty() ? dataset.nextVin() : ownCars.peek();
+                boolean success = ok(client.put("cars/" + vin + "?upsert=true", dataset.car(vin, dataset.randomPerson())));
+                if (success && !vin.equals(ownCars.peek())) {
+                    ownCars.push(vin);
+                }
+                return success;
+            }
+            case DELETE_CAR:
+                return ok(client.delete("cars/" + ownCars.pop()));
+            case FIND_PERSON:
+                return ok(client.get("persons/" + dataset.randomPerson(), JSON));
+            case FIND_PERSON_CARS:
+                return ok(client.get("persons/" + dataset.randomPerson() + "/cars", JSON));
+            case LIST_PERSONS_PAGE:
+                return ok(client.get("persons?limit=" + PAGE_SIZE + "&after=" + dataset.randomPerson(), JSON));
+            case LIST_PERSONS:
+                return ok(client.get("persons", JSON));
+            case STREAM_PERSONS:
+                return ok(client.get("persons", NDJSON));
+            case ADD_PERSON: {
+                HttpResponse<byte[]> response = client.post("persons", JSON, dataset.person());
+                boolean success = ok(response);
+                if (success) {
+                    ownPersons.push(mapper.readTree(response.body()).get("id").asLong());
+                }
+                return success;
+            }
+            case ADD_PERSONS_BULK: {
+                StringBuilder body = new StringBuilder();
+                for (int i = 0; i < BULK_ROWS; i++) {
+                    body.append(dataset.person()).append('\n');
+                }
+                return Dataset.accepted(mapper, client.post("persons/bulk", NDJSON, body.toString()));
+            }
+            case UPDATE_PERSON:
+                return ok(client.put("persons/" + dataset.randomPerson(), dataset.person()));
+            case DELETE_PERSON:
+                return ok(client.delete("persons/" + ownPersons.pop()));
+            default:
+                throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+    }
+
+    private static boolean ok(HttpResponse<byte[]> response) {
+        return response.statusCode() / 100 == 2;
+    }
+}
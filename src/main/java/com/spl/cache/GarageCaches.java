@@ -0,0 +1,43 @@
+package com.spl.cache;
+
+import com.spl.entity.Person;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Invalidation of the Hibernate second-level cache that Hibernate cannot do on its own.
+ * A person's cars collection is mapped from the car's side, so a car joining or leaving it does not invalidate
+ * the cached collection: every change to a car must evict its owner. Evictions requested inside a transaction
+ * run after it commits, so a concurrent reader cannot cache the old collection again before the change is visible.
+ */
+@Component
+@RequiredArgsConstructor
+public class GarageCaches {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictPerson(Long id) {
+        if (id != null) {
+            afterCommit(() -> entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                    .evictCollectionData(Person.CARS_ROLE, id));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,29 +1,51 @@
 package com.spl.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.spl.sync.SyncSequenceListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.validator.constraints.Length;
 
 import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
+
+/**
+ * Cars are equal when they have the same VIN, the primary key, whatever their other columns hold.
+ * Updates write only the changed columns.
+ */
 @Entity(name = "car")
 @Table(
         name = "cars",
         uniqueConstraints = {
                 @UniqueConstraint(name = "cars_number_UQ", columnNames = "number")
+        },
+        indexes = {
+                @Index(name = "cars_person_id_idx", columnList = "person_id"),
+                @Index(name = "cars_manufacturer_model_idx", columnList = "manufacturer, model")
         }
 )
-@Data
+@Cache(usage = READ_WRITE, region = "car")
+@DynamicUpdate
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class Car {
+@EntityListeners(SyncSequenceListener.class)
+public class Car implements SyncStamped {
     @Id
     @Column(
             name = "vin",
@@ -61,6 +83,37 @@ public class Car {
             name = "person_id",
             nullable = false
     )
+    @NotNull(message = "Owner Id should not be empty")
     @Min(value = 1L, message = "Owner Id should be greater then 0")
     private Long owner;
+
+    /**
+     * Bumped on every update; clients see it as the {@code ETag} of the car.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Modification sequence of the row, see {@link SyncSequenceListener}.
+     */
+    @Column(name = "sync_seq")
+    @JsonIgnore
+    private Long syncSeq;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Car)) {
+            return false;
+        }
+        return vin != null && vin.equals(((Car) o).getVin());
+    }
+
+    @Override
+    public int hashCode() {
+        return vin == null ? Car.class.hashCode() : vin.hashCode();
+    }
 }
@@ -0,0 +1,75 @@
+package com.spl.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+import static javax.persistence.GenerationType.SEQUENCE;
+import static org.hibernate.id.enhanced.SequenceStyleGenerator.SEQUENCE_PARAM;
+
+/**
+ * Outbox row recording that a car or person was created, updated or deleted. It is written in the transaction
+ * of the change and gets its feed {@link #position} only once the dispatcher has published it.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity(name = "change_event")
+@Table(name = "change_events")
+public class ChangeEvent {
+
+    public enum EntityType {
+        CAR, PERSON
+    }
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GenericGenerator(
+            name = "change_events_generator",
+            strategy = "com.spl.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SEQUENCE_PARAM, value = "change_events_seq")
+    )
+    @GeneratedValue(
+            strategy = SEQUENCE,
+            generator = "change_events_generator"
+    )
+    @JsonIgnore
+    private Long id;
+
+    /**
+     * Place in the published feed; {@code null} until the event is published.
+     */
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntityType entity;
+
+    /**
+     * VIN of the car or id of the person.
+     */
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeType type;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -1,9 +1,17 @@
 package com.spl.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.spl.sync.SyncSequenceListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -12,19 +20,37 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static javax.persistence.GenerationType.SEQUENCE;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
+import static org.hibernate.id.enhanced.SequenceStyleGenerator.SEQUENCE_PARAM;
 
-@Data
+/**
+ * Persons are equal when they have the same id. The hash code does not depend on the id, which is only
+ * assigned on persist, so a person stays findable in a set it was added to before being saved.
+ * Updates write only the changed columns.
+ */
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity(name = "person")
 @Table(name = "persons")
-public class Person {
+@Cache(usage = READ_WRITE, region = "person")
+@DynamicUpdate
+@EntityListeners(SyncSequenceListener.class)
+public class Person implements SyncStamped {
+    /**
+     * Role of {@link #cars}, which keys its second-level cache region. Hibernate does not see a car joining
+     * or leaving the collection, which is mapped from the car's side, so {@link com.spl.cache.GarageCaches} evicts it.
+     */
+    public static final String CARS_ROLE = "com.spl.entity.Person.cars";
+
     @Id
-    @SequenceGenerator(
+    @GenericGenerator(
             name = "persons_generator",
-            sequenceName = "persons_generator",
-            allocationSize = 1
+            strategy = "com.spl.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SEQUENCE_PARAM, value = "persons_generator")
     )
     @GeneratedValue(
             strategy = SEQUENCE,
@@ -43,10 +69,26 @@ public class Person {
     @Size(min = 2, max = 20, message = "Last name should be between 2 and 20 characters length")
     private String lastName;
 
+    @ToString.Exclude
+    @Cache(usage = READ_WRITE, region = "person-cars")
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "person_id")
+    @JoinColumn(name = "person_id", insertable = false, updatable = false)
     private Set<Car> cars = new HashSet<>();
 
+    /**
+     * Bumped on every update of the person row; see {@link com.spl.service.ETags#of(Person)}.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Modification sequence of the row, see {@link SyncSequenceListener}.
+     */
+    @Column(name = "sync_seq")
+    @JsonIgnore
+    private Long syncSeq;
+
     public Person(Long id, String firstName, String lastName) {
         this.id = id;
         this.firstName = firstName;
@@ -57,4 +99,20 @@ public class Person {
         cars.add(car);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Person)) {
+            return false;
+        }
+        return id != null && id.equals(((Person) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Person.class.hashCode();
+    }
+
 }
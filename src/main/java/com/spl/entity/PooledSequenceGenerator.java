@@ -0,0 +1,29 @@
+package com.spl.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator that hands out ids in blocks sized by the {@value #BLOCK_SIZE_SETTING} Hibernate setting
+ * (default {@value #DEFAULT_BLOCK_SIZE}), so one sequence round trip serves a whole block of inserts.
+ * The database sequence must use the same increment; Hibernate refuses to start otherwise.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String BLOCK_SIZE_SETTING = "garage.id.block-size";
+    public static final String DEFAULT_BLOCK_SIZE = "50";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        String blockSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(BLOCK_SIZE_SETTING, StandardConverters.STRING, DEFAULT_BLOCK_SIZE);
+        params.setProperty(INCREMENT_PARAM, blockSize);
+        params.putIfAbsent(OPT_PARAM, "pooled-lo");
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,10 @@
+package com.spl.entity;
+
+/**
+ * Entity whose row carries the modification sequence served by {@code GET /api/sync}; the value is set on every
+ * insert and update by {@link com.spl.sync.SyncSequenceListener}.
+ */
+public interface SyncStamped {
+
+    void setSyncSeq(Long syncSeq);
+}
@@ -0,0 +1,34 @@
+package com.spl.entity;
+
+import com.spl.entity.ChangeEvent.EntityType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+
+/**
+ * Marks a deleted car or person in the {@code GET /api/sync} delta, at the modification sequence of the deletion.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "tombstone")
+@Table(name = "sync_tombstones")
+public class Tombstone {
+
+    @Id
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntityType entity;
+
+    /**
+     * VIN of the car or id of the person.
+     */
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+}
@@ -0,0 +1,85 @@
+package com.spl.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Application meters on top of what Spring Boot binds by itself: HTTP requests, repository invocations
+ * ({@code spring.data.repository.invocations}), HikariCP pool usage and acquire time ({@code hikaricp.*})
+ * and Hibernate session and second-level cache statistics ({@code hibernate.*}, the cache regions under
+ * {@code hibernate.second.level.cache.*}).
+ * <ul>
+ *     <li>{@code garage.service}: every public {@code CarService} and {@code PersonService} method</li>
+ *     <li>{@code garage.http.sql.statements}: SQL statements prepared per servlet request</li>
+ *     <li>{@code garage.json.read}, {@code garage.json.write}: Jackson (de)serialization of request and response bodies</li>
+ * </ul>
+ * All tags are bounded: class and method names, HTTP method, URI template, body type; never a VIN or an id.
+ * Everything here, including Hibernate statistics, is switched off with {@code garage.metrics.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "garage.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    /**
+     * Every public method of the car and person services; see {@link ServiceMetricsInterceptor}.
+     */
+    @Bean
+    public static Advisor serviceMetricsAdvisor(ObjectProvider<MeterRegistry> registry) {
+        AspectJExpressionPointcut services = new AspectJExpressionPointcut();
+        services.setExpression("execution(public * com.spl.service.CarService+.*(..))"
+                + " || execution(public * com.spl.service.PersonService+.*(..))");
+        return new DefaultPointcutAdvisor(services, new ServiceMetricsInterceptor(registry));
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector(SqlStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    /**
+     * Member classes are registered on their own, so the switch is repeated here.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = SERVLET)
+    @ConditionalOnProperty(name = "garage.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    static class ServletMetricsConfig {
+
+        @Bean
+        public WebMvcConfigurer sqlStatementsPerRequest(SqlStatementCounter counter, MeterRegistry registry) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry interceptors) {
+                    interceptors.addInterceptor(new SqlStatementsInterceptor(counter, registry));
+                }
+            };
+        }
+
+        /**
+         * Replaces the converter Spring Boot would register, with the same application {@link ObjectMapper}.
+         */
+        @Bean
+        public TimedJackson2HttpMessageConverter timedJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MeterRegistry registry) {
+            return new TimedJackson2HttpMessageConverter(objectMapper, registry);
+        }
+    }
+}
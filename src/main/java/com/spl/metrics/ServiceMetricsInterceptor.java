@@ -0,0 +1,55 @@
+package com.spl.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times service methods as {@code garage.service}, tagged with the implementing class, the method and the
+ * exception it ended with ({@code none} on success). Reads answered from the Hibernate second-level cache are
+ * timed like any other call, so they show up as the fast end of the distribution.
+ * <p>
+ * The success timer of each method is looked up once: a {@code findCar} served from the second-level cache
+ * takes a few microseconds, so building tags on every call would be a visible share of it. The registry is
+ * resolved on first use: advisors are created before other beans, and an early registry would miss the pool
+ * and Hibernate meters.
+ */
+@RequiredArgsConstructor
+class ServiceMetricsInterceptor implements MethodInterceptor {
+    static final String METRIC = "garage.service";
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            successTimers.computeIfAbsent(invocation.getMethod(), method -> timer(invocation, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(invocation, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(MethodInvocation invocation, String exception) {
+        Object target = invocation.getThis();
+        Class<?> type = target == null ? invocation.getMethod().getDeclaringClass() : target.getClass();
+        return registry.getObject().timer(METRIC,
+                "class", type.getSimpleName(),
+                "method", invocation.getMethod().getName(),
+                "exception", exception);
+    }
+}
@@ -0,0 +1,25 @@
+package com.spl.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. A JDBC batch is prepared once,
+ * so it counts as one statement however many rows it carries.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private final transient ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        count.get()[0]++;
+        return sql;
+    }
+
+    void reset() {
+        count.get()[0] = 0;
+    }
+
+    int current() {
+        return count.get()[0];
+    }
+}
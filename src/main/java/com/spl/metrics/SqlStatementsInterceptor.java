@@ -0,0 +1,41 @@
+package com.spl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many statements each request prepared as {@code garage.http.sql.statements}, tagged with the
+ * HTTP method and URI template, so a handler that turns into N+1 queries shows up as a growing mean.
+ * Statements of streamed (NDJSON) responses run on another thread after the handler returns and are not counted.
+ */
+@RequiredArgsConstructor
+class SqlStatementsInterceptor implements HandlerInterceptor {
+    static final String METRIC = "garage.http.sql.statements";
+
+    private final SqlStatementCounter counter;
+
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        counter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC)
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .register(registry)
+                .record(counter.current());
+    }
+}
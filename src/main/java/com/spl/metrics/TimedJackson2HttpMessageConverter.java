@@ -0,0 +1,67 @@
+package com.spl.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Times JSON body (de)serialization as {@code garage.json.read} and {@code garage.json.write}, tagged with the
+ * declared body type such as {@code Car} or {@code List<Car>}.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    static final String READ = "garage.json.read";
+    static final String WRITE = "garage.json.write";
+
+    private final MeterRegistry registry;
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            sample.stop(registry.timer(READ, "type", name(type)));
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            sample.stop(registry.timer(WRITE, "type", type == null ? object.getClass().getSimpleName() : name(type)));
+        }
+    }
+
+    static String name(Type type) {
+        if (type instanceof Class) {
+            return ((Class<?>) type).getSimpleName();
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            return name(parameterized.getRawType()) + Arrays.stream(parameterized.getActualTypeArguments())
+                    .map(TimedJackson2HttpMessageConverter::name)
+                    .collect(Collectors.joining(",", "<", ">"));
+        }
+        return type.getTypeName();
+    }
+}
@@ -0,0 +1,16 @@
+package com.spl.outbox;
+
+import com.spl.entity.ChangeEvent;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Application event carrying the outbox rows {@link ChangeDispatcher} publishes in one go, in feed order.
+ * Listeners run inside the dispatcher's transaction: one that throws makes the whole batch be published again,
+ * so delivery is at least once.
+ */
+@Value
+public class ChangeBatch {
+    List<ChangeEvent> events;
+}
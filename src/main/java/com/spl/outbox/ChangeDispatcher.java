@@ -0,0 +1,79 @@
+package com.spl.outbox;
+
+import com.spl.entity.ChangeEvent;
+import com.spl.repository.ChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publishes outbox rows in batches from a single background thread. Publishing gives every row of the batch
+ * the next feed position, in the order the rows were written, and hands the batch to the
+ * {@link ChangeBatch} listeners; both happen in one transaction.
+ * <p>
+ * Positions are handed out here rather than when the row is written, so a change that commits late still
+ * lands after everything already in the feed and a reader paging by position never skips it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeDispatcher {
+
+    private final ChangeEventRepository repository;
+
+    private final ApplicationEventPublisher publisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${garage.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${garage.outbox.retention:7d}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${garage.outbox.dispatch-interval:1s}")
+    public void dispatchPending() {
+        int published;
+        do {
+            published = dispatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * Publishes the oldest unpublished rows, at most {@code garage.outbox.batch-size} of them.
+     *
+     * @return the number of rows published
+     */
+    public int dispatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<ChangeEvent> batch = repository.findUnpublished(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long position = repository.findLastPosition();
+            for (ChangeEvent event : batch) {
+                event.setPosition(++position);
+            }
+            repository.flush();
+            publisher.publishEvent(new ChangeBatch(List.copyOf(batch)));
+            return batch.size();
+        });
+        return published == null ? 0 : published;
+    }
+
+    /**
+     * Drops published rows older than {@code garage.outbox.retention}; a consumer further behind has to resync.
+     */
+    @Scheduled(fixedDelayString = "${garage.outbox.cleanup-interval:1h}")
+    public void deleteExpired() {
+        transactionTemplate.executeWithoutResult(status ->
+                repository.deletePublishedBefore(Instant.now().minus(retention)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.spl.outbox;
+
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent;
+import com.spl.entity.ChangeEvent.ChangeType;
+import com.spl.entity.ChangeEvent.EntityType;
+import com.spl.entity.Person;
+import com.spl.entity.Tombstone;
+import com.spl.sync.SyncSequence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.Instant;
+
+import static javax.transaction.Transactional.TxType.MANDATORY;
+
+/**
+ * Writes the outbox row of a car or person change, and the sync tombstone of a deletion. It must join the
+ * transaction of the change itself, so both exist exactly when the change was committed;
+ * {@link ChangeDispatcher} publishes the event later.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(MANDATORY)
+public class ChangeLog {
+
+    private final EntityManager entityManager;
+
+    private final SyncSequence syncSequence;
+
+    public void car(Car car, ChangeType type) {
+        car(car.getVin(), type);
+    }
+
+    public void car(String vin, ChangeType type) {
+        record(EntityType.CAR, vin, type);
+    }
+
+    public void person(Person person, ChangeType type) {
+        record(EntityType.PERSON, String.valueOf(person.getId()), type);
+    }
+
+    private void record(EntityType entity, String id, ChangeType type) {
+        entityManager.persist(ChangeEvent.builder()
+                .entity(entity)
+                .entityId(id)
+                .type(type)
+                .createdAt(Instant.now())
+                .build());
+        if (type == ChangeType.DELETED) {
+            entityManager.persist(new Tombstone(syncSequence.next(), entity, id));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.spl.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs {@link ChangeDispatcher} in the background. Switch it off with {@code garage.outbox.dispatcher.enabled=false}
+ * on all but one instance sharing a database, or to publish by calling {@link ChangeDispatcher#dispatch()} directly.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "garage.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+}
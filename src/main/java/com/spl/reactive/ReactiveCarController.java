@@ -0,0 +1,96 @@
+package com.spl.reactive;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarFilter;
+import com.spl.service.BulkResult;
+import com.spl.web.Pages;
+import com.spl.web.ValidationProblem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+@Profile(ReactiveSplApplication.PROFILE)
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/cars")
+public class ReactiveCarController {
+
+    private final ReactiveCarService service;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Car>>> findAllCars(@RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String after,
+                                                       @RequestParam(required = false) String manufacturer,
+                                                       @RequestParam(required = false) String model,
+                                                       @RequestParam(required = false) Long owner,
+                                                       @RequestParam(required = false) String numberPrefix,
+                                                       ServerHttpRequest request) {
+        CarFilter filter = new CarFilter(manufacturer, model, owner, numberPrefix);
+        if (limit == null && after == null && filter.isEmpty()) {
+            return service.getCars().collectList().map(cars -> new ResponseEntity<>(cars, OK));
+        }
+        int pageSize = Pages.limit(limit);
+        Flux<Car> page = filter.isEmpty() ? service.getCars(after, pageSize) : service.search(filter, after, pageSize);
+        return page.collectList().map(cars -> new ResponseEntity<>(cars,
+                Pages.nextLink(UriComponentsBuilder.fromHttpRequest(request), cars, pageSize, Car::getVin), OK));
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public Flux<Car> streamAllCars() {
+        return service.getCars();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Car>> addCar(@Valid @RequestBody Car car) {
+        return service.add(car).map(saved -> new ResponseEntity<>(saved, CREATED));
+    }
+
+    @PostMapping(value = "bulk", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BulkResult>> addCarsBulk(@RequestBody Flux<Car> cars) {
+        return service.importCars(cars).map(result -> new ResponseEntity<>(result, OK));
+    }
+
+    @GetMapping("{vin}")
+    public Mono<ResponseEntity<Car>> findCar(@PathVariable String vin) {
+        return service.findCar(vin).map(car -> new ResponseEntity<>(car, OK));
+    }
+
+    @PutMapping("{vin}")
+    public Mono<ResponseEntity<Car>> updateCar(@PathVariable String vin, @Valid @RequestBody Car car) {
+        return service.updateCar(vin, car).map(updated -> new ResponseEntity<>(updated, OK));
+    }
+
+    @PutMapping(value = "{vin}", params = "upsert=true")
+    public Mono<ResponseEntity<Car>> upsertCar(@PathVariable String vin, @Valid @RequestBody Car car) {
+        return service.upsert(vin, car).map(stored -> new ResponseEntity<>(stored, OK));
+    }
+
+    @DeleteMapping("{vin}")
+    public Mono<ResponseEntity<Void>> deleteCar(@PathVariable String vin) {
+        return service.remove(vin).thenReturn(new ResponseEntity<>(OK));
+    }
+
+    @GetMapping("{vin}/owner")
+    public Mono<Person> getCarsOwner(@PathVariable String vin) {
+        return service.findOwner(vin);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ValidationProblem> handleValidationException(WebExchangeBindException ex) {
+        return ValidationProblem.response(ex.getBindingResult());
+    }
+}
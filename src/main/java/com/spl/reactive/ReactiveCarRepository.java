@@ -0,0 +1,133 @@
+package com.spl.reactive;
+
+import com.spl.entity.Car;
+import com.spl.repository.CarFilter;
+import com.spl.repository.CarSpecifications;
+import io.r2dbc.spi.Row;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code cars} table access over R2DBC. Statements are written out rather than derived, because {@link Car}
+ * carries JPA mapping only. Every write stamps the row with a value of the {@code sync_seq} modification sequence.
+ */
+@Profile(ReactiveSplApplication.PROFILE)
+@Repository
+@AllArgsConstructor
+public class ReactiveCarRepository {
+    private static final String COLUMNS = "select vin, number, manufacturer, model, person_id from cars";
+
+    private final DatabaseClient client;
+
+    public Flux<Car> findAll() {
+        return client.sql(COLUMNS + " order by vin").map(ReactiveCarRepository::car).all();
+    }
+
+    public Flux<Car> findPage(String after, int limit) {
+        return client.sql(COLUMNS + " where vin > :after order by vin limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveCarRepository::car)
+                .all();
+    }
+
+    /**
+     * The R2DBC counterpart of {@link com.spl.repository.CarSpecifications}: the same predicates, bound as parameters.
+     */
+    public Flux<Car> search(CarFilter filter, String after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(COLUMNS).append(" where vin > :after");
+        params.put("after", after);
+        if (filter.getManufacturer() != null) {
+            sql.append(" and manufacturer = :manufacturer");
+            params.put("manufacturer", filter.getManufacturer());
+        }
+        if (filter.getModel() != null) {
+            sql.append(" and model = :model");
+            params.put("model", filter.getModel());
+        }
+        if (filter.getOwner() != null) {
+            sql.append(" and person_id = :owner");
+            params.put("owner", filter.getOwner());
+        }
+        if (filter.getNumberPrefix() != null) {
+            sql.append(" and number like :number escape '\\'");
+            params.put("number", CarSpecifications.prefixPattern(filter.getNumberPrefix()));
+        }
+        sql.append(" order by vin limit :limit");
+        params.put("limit", limit);
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(ReactiveCarRepository::car).all();
+    }
+
+    public Mono<Car> findById(String vin) {
+        return client.sql(COLUMNS + " where vin = :vin").bind("vin", vin).map(ReactiveCarRepository::car).one();
+    }
+
+    public Flux<Car> findByOwners(Collection<Long> owners) {
+        return client.sql(COLUMNS + " where person_id in (:owners)")
+                .bind("owners", owners)
+                .map(ReactiveCarRepository::car)
+                .all();
+    }
+
+    public Mono<Car> insert(Car car) {
+        return client.sql("insert into cars (vin, number, manufacturer, model, person_id, version, sync_seq) "
+                        + "values (:vin, :number, :manufacturer, :model, :owner, 0, next value for sync_seq)")
+                .bind("vin", car.getVin())
+                .bind("number", car.getNumber())
+                .bind("manufacturer", car.getManufacturer())
+                .bind("model", car.getModel())
+                .bind("owner", car.getOwner())
+                .then()
+                .thenReturn(car);
+    }
+
+    public Mono<Car> update(Car car) {
+        return client.sql("update cars set number = :number, manufacturer = :manufacturer, model = :model, "
+                        + "person_id = :owner, version = version + 1, sync_seq = next value for sync_seq "
+                        + "where vin = :vin")
+                .bind("vin", car.getVin())
+                .bind("number", car.getNumber())
+                .bind("manufacturer", car.getManufacturer())
+                .bind("model", car.getModel())
+                .bind("owner", car.getOwner())
+                .then()
+                .thenReturn(car);
+    }
+
+    public Mono<Integer> delete(String vin) {
+        return client.sql("delete from cars where vin = :vin").bind("vin", vin).fetch().rowsUpdated();
+    }
+
+    /**
+     * @return the VINs of exactly the deleted cars, read from the delete itself
+     */
+    public Flux<String> deleteByOwner(Long owner) {
+        return client.sql("select vin from old table (delete from cars where person_id = :owner)")
+                .bind("owner", owner)
+                .map(row -> row.get("vin", String.class))
+                .all();
+    }
+
+    private static Car car(Row row) {
+        return Car.builder()
+                .vin(row.get("vin", String.class))
+                .number(row.get("number", String.class))
+                .manufacturer(row.get("manufacturer", String.class))
+                .model(row.get("model", String.class))
+                .owner(row.get("person_id", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.spl.reactive;
+
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent.ChangeType;
+import com.spl.entity.Person;
+import com.spl.repository.CarFilter;
+import com.spl.service.BulkResult;
+import com.spl.service.ExpectedStatusException;
+import io.r2dbc.spi.R2dbcException;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static org.springframework.http.HttpStatus.*;
+
+/**
+ * Reactive counterpart of {@link com.spl.service.CarService} with the same validation and error responses.
+ * Every write records its change through {@link ReactiveChangeLog} in the same transaction.
+ */
+@Profile(ReactiveSplApplication.PROFILE)
+@Service
+@AllArgsConstructor
+public class ReactiveCarService {
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final Set<String> FOREIGN_KEY_VIOLATIONS = Set.of("23503", "23506");
+
+    private final ReactiveCarRepository repository;
+
+    private final ReactivePersonService personService;
+
+    private final Validator validator;
+
+    private final ReactiveChangeLog changes;
+
+    private final TransactionalOperator transactions;
+
+    public Flux<Car> getCars() {
+        return repository.findAll();
+    }
+
+    public Flux<Car> getCars(String after, int limit) {
+        return repository.findPage(after == null ? "" : after, limit);
+    }
+
+    public Flux<Car> search(CarFilter filter, String after, int limit) {
+        return repository.search(filter, after == null ? "" : after, limit);
+    }
+
+    public Mono<Car> add(Car car) {
+        return repository.insert(car)
+                .flatMap(stored -> changes.car(stored.getVin(), ChangeType.CREATED).thenReturn(stored))
+                .as(transactions::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> constraintViolation(car, e));
+    }
+
+    public Mono<Car> findCar(String vin) {
+        return repository.findById(vin).switchIfEmpty(Mono.error(() -> notFound(vin)));
+    }
+
+    public Mono<Person> findOwner(String vin) {
+        return findCar(vin).flatMap(car -> personService.findById(car.getOwner()));
+    }
+
+    /**
+     * Replaces every field of the stored car, the owner included. Unlike the servlet variant, which maps a
+     * changed VIN onto the stored row, a VIN in the body that differs from the path is rejected.
+     */
+    public Mono<Car> updateCar(String vin, Car car) {
+        if (!vin.equals(car.getVin())) {
+            return Mono.error(new ExpectedStatusException(BAD_REQUEST, "VIN in the body should match the path"));
+        }
+        return findCar(vin)
+                .flatMap(existing -> {
+                    existing.setNumber(car.getNumber());
+                    existing.setManufacturer(car.getManufacturer());
+                    existing.setModel(car.getModel());
+                    existing.setOwner(car.getOwner());
+                    return repository.update(existing);
+                })
+                .flatMap(stored -> changes.car(vin, ChangeType.UPDATED).thenReturn(stored))
+                .as(transactions::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> constraintViolation(car, e));
+    }
+
+    public Mono<Car> upsert(String vin, Car car) {
+        if (!vin.equals(car.getVin())) {
+            return Mono.error(new ExpectedStatusException(BAD_REQUEST, "VIN in the body should match the path"));
+        }
+        return repository.findById(vin)
+                .flatMap(existing -> repository.update(car)
+                        .flatMap(stored -> changes.car(vin, ChangeType.UPDATED).thenReturn(stored)))
+                .switchIfEmpty(Mono.defer(() -> repository.insert(car)
+                        .flatMap(stored -> changes.car(vin, ChangeType.CREATED).thenReturn(stored))))
+                .as(transactions::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> constraintViolation(car, e));
+    }
+
+    public Mono<Void> remove(String vin) {
+        return repository.delete(vin)
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>empty() : changes.car(vin, ChangeType.DELETED))
+                .as(transactions::transactional);
+    }
+
+    /**
+     * Inserts rows one by one as they are decoded, so memory stays flat however long the stream is.
+     */
+    public Mono<BulkResult> importCars(Flux<Car> cars) {
+        BulkResult result = new BulkResult();
+        return cars.index()
+                .concatMap(row -> {
+                    int index = row.getT1().intValue();
+                    Car car = row.getT2();
+                    Set<String> errors = violations(car);
+                    if (!errors.isEmpty()) {
+                        result.reject(index, errors);
+                        return Mono.empty();
+                    }
+                    return add(car)
+                            .doOnNext(stored -> result.accept(1))
+                            .onErrorResume(e -> {
+                                result.reject(index, e instanceof ResponseStatusException
+                                        ? ((ResponseStatusException) e).getReason()
+                                        : "Rejected by the database");
+                                return Mono.empty();
+                            });
+                })
+                .then(Mono.fromSupplier(() -> {
+                    result.getRejected().sort(Comparator.comparingInt(BulkResult.RowError::getIndex));
+                    return result;
+                }));
+    }
+
+    private Set<String> violations(Car car) {
+        return validator.validate(car).stream().map(ConstraintViolation::getMessage).collect(Collectors.toSet());
+    }
+
+    private static ResponseStatusException notFound(String vin) {
+        return new ExpectedStatusException(NOT_FOUND, format("No car with vin %s in DB", vin));
+    }
+
+    /**
+     * Maps a violated constraint of the {@code cars} table to the error the client can act on.
+     */
+    private static Throwable constraintViolation(Car car, DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof R2dbcException)) {
+            return e;
+        }
+        R2dbcException violation = (R2dbcException) e.getCause();
+        if (UNIQUE_VIOLATION.equals(violation.getSqlState())) {
+            return String.valueOf(violation.getMessage()).toUpperCase().contains("CARS_NUMBER_UQ")
+                    ? new ResponseStatusException(CONFLICT, "This number is already exists")
+                    : new ResponseStatusException(CONFLICT, "This vin is already exists");
+        }
+        if (FOREIGN_KEY_VIOLATIONS.contains(violation.getSqlState())) {
+            return new ExpectedStatusException(BAD_REQUEST, format("No person with id %d in DB", car.getOwner()));
+        }
+        return e;
+    }
+}
@@ -0,0 +1,48 @@
+package com.spl.reactive;
+
+import com.spl.entity.ChangeEvent.ChangeType;
+import com.spl.entity.ChangeEvent.EntityType;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link com.spl.outbox.ChangeLog}: writes the outbox row of a car or person change, and the
+ * sync tombstone of a deletion, in the transaction of the change. Ids and sequence values are taken with
+ * {@code next value for}, which reserves a whole block of the pooled sequences, so they never collide with the
+ * blocks the servlet stack hands out from memory.
+ */
+@Profile(ReactiveSplApplication.PROFILE)
+@Component
+@AllArgsConstructor
+public class ReactiveChangeLog {
+
+    private final DatabaseClient client;
+
+    public Mono<Void> car(String vin, ChangeType type) {
+        return record(EntityType.CAR, vin, type);
+    }
+
+    public Mono<Void> person(Long id, ChangeType type) {
+        return record(EntityType.PERSON, String.valueOf(id), type);
+    }
+
+    private Mono<Void> record(EntityType entity, String id, ChangeType type) {
+        Mono<Void> event = client.sql("insert into change_events (id, entity, entity_id, type, created_at) "
+                        + "values (next value for change_events_seq, :entity, :id, :type, localtimestamp)")
+                .bind("entity", entity.name())
+                .bind("id", id)
+                .bind("type", type.name())
+                .then();
+        if (type != ChangeType.DELETED) {
+            return event;
+        }
+        return event.then(client.sql("insert into sync_tombstones (seq, entity, entity_id) "
+                        + "values (next value for sync_seq, :entity, :id)")
+                .bind("entity", entity.name())
+                .bind("id", id)
+                .then());
+    }
+}
@@ -0,0 +1,84 @@
+package com.spl.reactive;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.service.BulkResult;
+import com.spl.web.Pages;
+import com.spl.web.ValidationProblem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.http.HttpStatus.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+@Profile(ReactiveSplApplication.PROFILE)
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("persons")
+public class ReactivePersonController {
+    private final ReactivePersonService service;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Person>>> findAllPersons(@RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) Long after,
+                                                             ServerHttpRequest request) {
+        if (limit == null && after == null) {
+            return service.findAll().collectList().map(persons -> new ResponseEntity<>(persons, OK));
+        }
+        int pageSize = Pages.limit(limit);
+        return service.findAll(after, pageSize).collectList().map(persons -> new ResponseEntity<>(persons,
+                Pages.nextLink(UriComponentsBuilder.fromHttpRequest(request), persons, pageSize, Person::getId), OK));
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public Flux<Person> streamAllPersons() {
+        return service.findAll();
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Person>> findPersonById(@PathVariable Long id) {
+        return service.findById(id).map(person -> new ResponseEntity<>(person, OK));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Person>> addPerson(@Valid @RequestBody Person person) {
+        return service.add(person).map(saved -> new ResponseEntity<>(saved, CREATED));
+    }
+
+    @PostMapping(value = "bulk", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BulkResult>> addPersonsBulk(@RequestBody Flux<Person> persons) {
+        return service.importPersons(persons).map(result -> new ResponseEntity<>(result, OK));
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Person>> updatePerson(@PathVariable Long id, @Valid @RequestBody Person person) {
+        return service.update(id, person).map(updated -> new ResponseEntity<>(updated, OK));
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<Void>> deletePerson(@PathVariable Long id) {
+        return service.remove(id).thenReturn(new ResponseEntity<>(OK));
+    }
+
+    @GetMapping("{id}/cars")
+    public Mono<Set<Car>> getPersonsCars(@PathVariable Long id) {
+        return service.findById(id).map(Person::getCars);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ValidationProblem> handleValidationException(WebExchangeBindException ex) {
+        return ValidationProblem.response(ex.getBindingResult());
+    }
+}
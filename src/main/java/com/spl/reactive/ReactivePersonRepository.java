@@ -0,0 +1,74 @@
+package com.spl.reactive;
+
+import com.spl.entity.Person;
+import io.r2dbc.spi.Row;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code persons} table access over R2DBC. Rows come back without cars; {@link ReactivePersonService} attaches them.
+ * Every write stamps the row with a value of the {@code sync_seq} modification sequence.
+ */
+@Profile(ReactiveSplApplication.PROFILE)
+@Repository
+@AllArgsConstructor
+public class ReactivePersonRepository {
+    private static final String COLUMNS = "select id, first_name, last_name from persons";
+
+    private final DatabaseClient client;
+
+    public Flux<Person> findAll() {
+        return client.sql(COLUMNS + " order by id").map(ReactivePersonRepository::person).all();
+    }
+
+    public Flux<Person> findPage(Long after, int limit) {
+        return client.sql(COLUMNS + " where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactivePersonRepository::person)
+                .all();
+    }
+
+    public Mono<Person> findById(Long id) {
+        return client.sql(COLUMNS + " where id = :id").bind("id", id).map(ReactivePersonRepository::person).one();
+    }
+
+    /**
+     * Takes the first id of a fresh {@code persons_generator} block. The JPA side hands out the rest of a block
+     * from memory, so using only its first value never collides with it.
+     */
+    public Mono<Person> insert(Person person) {
+        return client.sql("select next value for persons_generator")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> client.sql("insert into persons (id, first_name, last_name, version, sync_seq) "
+                                + "values (:id, :first, :last, 0, next value for sync_seq)")
+                        .bind("id", id)
+                        .bind("first", person.getFirstName())
+                        .bind("last", person.getLastName())
+                        .then()
+                        .thenReturn(new Person(id, person.getFirstName(), person.getLastName())));
+    }
+
+    public Mono<Integer> update(Long id, Person person) {
+        return client.sql("update persons set first_name = :first, last_name = :last, version = version + 1, "
+                        + "sync_seq = next value for sync_seq where id = :id")
+                .bind("id", id)
+                .bind("first", person.getFirstName())
+                .bind("last", person.getLastName())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Integer> delete(Long id) {
+        return client.sql("delete from persons where id = :id").bind("id", id).fetch().rowsUpdated();
+    }
+
+    private static Person person(Row row) {
+        return new Person(row.get("id", Long.class), row.get("first_name", String.class), row.get("last_name", String.class));
+    }
+}
@@ -0,0 +1,129 @@
+package com.spl.reactive;
+
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent.ChangeType;
+import com.spl.entity.Person;
+import com.spl.service.BulkResult;
+import com.spl.service.ExpectedStatusException;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Reactive counterpart of {@link com.spl.service.PersonService} with the same validation and error responses.
+ * Every write records its change through {@link ReactiveChangeLog} in the same transaction.
+ */
+@Profile(ReactiveSplApplication.PROFILE)
+@Service
+@AllArgsConstructor
+public class ReactivePersonService {
+    /** Persons whose cars are loaded with one statement. */
+    private static final int BATCH_SIZE = 500;
+
+    private final ReactivePersonRepository repository;
+
+    private final ReactiveCarRepository carRepository;
+
+    private final Validator validator;
+
+    private final ReactiveChangeLog changes;
+
+    private final TransactionalOperator transactions;
+
+    public Flux<Person> findAll() {
+        return withCars(repository.findAll());
+    }
+
+    public Flux<Person> findAll(Long after, int limit) {
+        return withCars(repository.findPage(after == null ? 0L : after, limit));
+    }
+
+    public Mono<Person> findById(Long id) {
+        return withCars(repository.findById(id).flux())
+                .next()
+                .switchIfEmpty(Mono.error(() -> new ExpectedStatusException(NOT_FOUND, format("No person with id %d in DB", id))));
+    }
+
+    public Mono<Person> add(Person person) {
+        return repository.insert(person)
+                .flatMap(stored -> changes.person(stored.getId(), ChangeType.CREATED).thenReturn(stored))
+                .as(transactions::transactional);
+    }
+
+    public Mono<Person> update(Long id, Person person) {
+        return repository.update(id, person)
+                .flatMap(updated -> updated == 0
+                        ? Mono.<Void>error(new ExpectedStatusException(NOT_FOUND,
+                                format("No person with id %d in DB", id)))
+                        : changes.person(id, ChangeType.UPDATED))
+                .then(findById(id))
+                .as(transactions::transactional);
+    }
+
+    /**
+     * The owned cars are deleted with the person, and each of them is recorded as deleted.
+     */
+    public Mono<Void> remove(Long id) {
+        return carRepository.deleteByOwner(id)
+                .concatMap(vin -> changes.car(vin, ChangeType.DELETED))
+                .then(repository.delete(id))
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>empty() : changes.person(id, ChangeType.DELETED))
+                .as(transactions::transactional);
+    }
+
+    public Mono<BulkResult> importPersons(Flux<Person> persons) {
+        BulkResult result = new BulkResult();
+        return persons.index()
+                .concatMap(row -> {
+                    int index = row.getT1().intValue();
+                    Person person = row.getT2();
+                    Set<String> errors = validator.validate(person).stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.toSet());
+                    if (!errors.isEmpty()) {
+                        result.reject(index, errors);
+                        return Mono.empty();
+                    }
+                    if (person.getCars() != null && !person.getCars().isEmpty()) {
+                        result.reject(index, "Cars should be imported via /cars/bulk");
+                        return Mono.empty();
+                    }
+                    return add(person)
+                            .doOnNext(stored -> result.accept(1))
+                            .onErrorResume(e -> {
+                                result.reject(index, "Rejected by the database");
+                                return Mono.empty();
+                            });
+                })
+                .then(Mono.fromSupplier(() -> {
+                    result.getRejected().sort(Comparator.comparingInt(BulkResult.RowError::getIndex));
+                    return result;
+                }));
+    }
+
+    /**
+     * Attaches the cars of every {@link #BATCH_SIZE} persons with a single {@code in} query.
+     */
+    private Flux<Person> withCars(Flux<Person> persons) {
+        return persons.buffer(BATCH_SIZE).concatMap(batch -> carRepository
+                .findByOwners(batch.stream().map(Person::getId).collect(Collectors.toList()))
+                .collectMultimap(Car::getOwner)
+                .flatMapMany(cars -> {
+                    batch.forEach(person -> person.getCars().addAll(cars.getOrDefault(person.getId(), List.of())));
+                    return Flux.fromIterable(batch);
+                }));
+    }
+}
@@ -0,0 +1,60 @@
+package com.spl.reactive;
+
+import com.spl.security.AuthenticationCache;
+import com.spl.security.CachingReactiveAuthenticationManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+import java.time.Duration;
+
+/**
+ * HTTP Basic over the same users as the servlet stack. BCrypt runs off the event loop on a cache miss only.
+ */
+@Profile(ReactiveSplApplication.PROFILE)
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http,
+                                                            CachingReactiveAuthenticationManager authenticationManager) {
+        return http
+                .authorizeExchange(exchanges -> exchanges.anyExchange().authenticated())
+                .csrf().disable()
+                .httpBasic(basic -> basic.authenticationManager(authenticationManager))
+                .build();
+    }
+
+    @Bean
+    public CachingReactiveAuthenticationManager authenticationManager(
+            @Value("${garage.security.auth-cache.maximum-size:10000}") long maximumSize,
+            @Value("${garage.security.auth-cache.ttl:5m}") Duration ttl) {
+        UserDetailsRepositoryReactiveAuthenticationManager delegate =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService());
+        delegate.setPasswordEncoder(encoder());
+        return new CachingReactiveAuthenticationManager(delegate, new AuthenticationCache(maximumSize, ttl));
+    }
+
+    @Bean
+    public MapReactiveUserDetailsService userDetailsService() {
+        return new MapReactiveUserDetailsService(User.withUsername("user1")
+                .password(encoder().encode("password1"))
+                .roles("USER")
+                .build());
+    }
+
+    @Bean
+    public PasswordEncoder encoder() {
+        return new BCryptPasswordEncoder();
+    }
+}
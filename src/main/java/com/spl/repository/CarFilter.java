@@ -0,0 +1,21 @@
+package com.spl.repository;
+
+import lombok.Value;
+
+/**
+ * Criteria of a car search; {@code null} fields do not restrict the result.
+ */
+@Value
+public class CarFilter {
+    String manufacturer;
+
+    String model;
+
+    Long owner;
+
+    String numberPrefix;
+
+    public boolean isEmpty() {
+        return manufacturer == null && model == null && owner == null && numberPrefix == null;
+    }
+}
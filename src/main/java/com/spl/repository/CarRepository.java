@@ -1,9 +1,55 @@
 package com.spl.repository;
 
 import com.spl.entity.Car;
+import com.spl.entity.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
-public interface CarRepository extends JpaRepository<Car, String> {
+public interface CarRepository extends JpaRepository<Car, String>, CarRepositoryCustom {
+
+    List<Car> findByVinGreaterThanOrderByVin(String vin, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select c from car c order by c.vin")
+    Stream<Car> streamAll();
+
+    @Query("select c.vin from car c where c.vin in :vins")
+    Set<String> findExistingVins(Collection<String> vins);
+
+    @Query("select c.number from car c where c.number in :numbers")
+    Set<String> findExistingNumbers(Collection<String> numbers);
+
+    @Query("select c.vin from car c where c.owner = :owner")
+    Set<String> findVinsByOwner(Long owner);
+
+    @Query("select distinct c.owner from car c where c.vin in :vins")
+    Set<Long> findOwnersByVinIn(Collection<String> vins);
+
+    /**
+     * One {@code DELETE} for all the cars. Hibernate drops the car and person-cars second-level regions
+     * on its own; the persistence context is cleared, since it may still hold the deleted cars.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from car c where c.vin in :vins")
+    int deleteByVinIn(Collection<String> vins);
+
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select p from person p left join fetch p.cars " +
+            "where p.id = (select c.owner from car c where c.vin = :vin)")
+    Optional<Person> findOwnerByVin(String vin);
 }
@@ -0,0 +1,41 @@
+package com.spl.repository;
+
+import com.spl.entity.Car;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CarRepositoryCustom {
+
+    /**
+     * Inserts a new car without the existence check {@code save} does for assigned ids.
+     * A duplicate VIN or number, or an unknown owner, fails on the database constraints
+     * as a {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    Car insert(Car car);
+
+    /**
+     * Keyset page of the cars matching {@code spec}: at most {@code limit} cars with a VIN greater than
+     * {@code after}, in VIN order. Unlike {@code findAll(spec, pageable)} this runs no count query.
+     */
+    List<Car> search(Specification<Car> spec, String after, int limit);
+
+    /**
+     * Sets the given columns of all the cars with one {@code UPDATE}, bumping their version and stamping them with
+     * {@code syncSeq}; a {@code null} value leaves its column as it is. Like {@link CarRepository#deleteByVinIn},
+     * it clears the persistence context.
+     *
+     * @return the number of cars updated
+     */
+    int update(Collection<String> vins, String manufacturer, String model, Long owner, long syncSeq);
+
+    /**
+     * Moves the car stored under {@code vin} to the VIN of {@code car} with one {@code UPDATE} of the primary key,
+     * taking over its number, manufacturer, model and owner, provided the car still has {@code version}.
+     * Clears the persistence context like {@link #update}.
+     *
+     * @return 1 when the car was moved, 0 when it is gone or has been modified since {@code version}
+     */
+    int changeVin(String vin, Long version, Car car, long syncSeq);
+}
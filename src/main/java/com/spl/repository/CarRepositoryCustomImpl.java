@@ -0,0 +1,94 @@
+package com.spl.repository;
+
+import com.spl.entity.Car;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+public class CarRepositoryCustomImpl implements CarRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Car insert(Car car) {
+        entityManager.persist(car);
+        entityManager.flush();
+        return car;
+    }
+
+    @Override
+    public List<Car> search(Specification<Car> spec, String after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = cb.createQuery(Car.class);
+        Root<Car> car = query.from(Car.class);
+        Specification<Car> page = Specification.where(spec)
+                .and((root, q, builder) -> builder.greaterThan(root.get("vin"), after == null ? "" : after));
+        query.select(car)
+                .where(page.toPredicate(car, query, cb))
+                .orderBy(cb.asc(car.get("vin")));
+        return entityManager.createQuery(query)
+                .setHint(HINT_CACHEABLE, true)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int update(Collection<String> vins, String manufacturer, String model, Long owner, long syncSeq) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (manufacturer != null) {
+            values.put("manufacturer", manufacturer);
+        }
+        if (model != null) {
+            values.put("model", model);
+        }
+        if (owner != null) {
+            values.put("owner", owner);
+        }
+        StringBuilder jpql = new StringBuilder("update car c set c.version = c.version + 1, c.syncSeq = :syncSeq");
+        values.keySet().forEach(column -> jpql.append(", c.").append(column).append(" = :").append(column));
+        jpql.append(" where c.vin in :vins");
+        entityManager.flush();
+        Query query = entityManager.createQuery(jpql.toString())
+                .setParameter("syncSeq", syncSeq)
+                .setParameter("vins", vins);
+        values.forEach(query::setParameter);
+        int updated = query.executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int changeVin(String vin, Long version, Car car, long syncSeq) {
+        entityManager.flush();
+        int moved = entityManager.createQuery("update car c set c.vin = :newVin, c.number = :number, "
+                        + "c.manufacturer = :manufacturer, c.model = :model, c.owner = :owner, "
+                        + "c.version = c.version + 1, c.syncSeq = :syncSeq where c.vin = :vin and c.version = :version")
+                .setParameter("newVin", car.getVin())
+                .setParameter("number", car.getNumber())
+                .setParameter("manufacturer", car.getManufacturer())
+                .setParameter("model", car.getModel())
+                .setParameter("owner", car.getOwner())
+                .setParameter("syncSeq", syncSeq)
+                .setParameter("vin", vin)
+                .setParameter("version", version)
+                .executeUpdate();
+        entityManager.clear();
+        return moved;
+    }
+}
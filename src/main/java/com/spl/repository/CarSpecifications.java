@@ -0,0 +1,50 @@
+package com.spl.repository;
+
+import com.spl.entity.Car;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicates of {@link CarFilter}, each one answerable from an index on {@code cars}:
+ * {@code person_id}, ({@code manufacturer}, {@code model}), and the unique index on {@code number} for prefixes.
+ */
+public final class CarSpecifications {
+    public static final char LIKE_ESCAPE = '\\';
+
+    private CarSpecifications() {
+    }
+
+    public static Specification<Car> matching(CarFilter filter) {
+        return Specification.where(manufacturer(filter.getManufacturer()))
+                .and(model(filter.getModel()))
+                .and(owner(filter.getOwner()))
+                .and(numberStartsWith(filter.getNumberPrefix()));
+    }
+
+    static Specification<Car> manufacturer(String manufacturer) {
+        return manufacturer == null ? null : (car, query, cb) -> cb.equal(car.get("manufacturer"), manufacturer);
+    }
+
+    static Specification<Car> model(String model) {
+        return model == null ? null : (car, query, cb) -> cb.equal(car.get("model"), model);
+    }
+
+    static Specification<Car> owner(Long owner) {
+        return owner == null ? null : (car, query, cb) -> cb.equal(car.get("owner"), owner);
+    }
+
+    static Specification<Car> numberStartsWith(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        String pattern = prefixPattern(prefix);
+        return (car, query, cb) -> cb.like(car.get("number"), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * A {@code like} pattern for values starting with {@code prefix}, its wildcards escaped with {@link #LIKE_ESCAPE}.
+     * A constant prefix lets the database serve the match as an index range.
+     */
+    public static String prefixPattern(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
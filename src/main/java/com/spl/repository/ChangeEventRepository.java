@@ -0,0 +1,27 @@
+package com.spl.repository;
+
+import com.spl.entity.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    @Query("select e from change_event e where e.position is null order by e.id")
+    List<ChangeEvent> findUnpublished(Pageable pageable);
+
+    @Query("select coalesce(max(e.position), 0) from change_event e")
+    long findLastPosition();
+
+    List<ChangeEvent> findByPositionGreaterThanOrderByPosition(Long position, Pageable pageable);
+
+    @Modifying
+    @Query("delete from change_event e where e.position is not null and e.createdAt < :before")
+    int deletePublishedBefore(Instant before);
+}
@@ -1,9 +1,59 @@
 package com.spl.repository;
 
 import com.spl.entity.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.*;
+
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long>{
+
+    @QueryHints({
+            @QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select distinct p from person p left join fetch p.cars")
+    List<Person> findAllWithCars();
+
+    @Query("select p from person p left join fetch p.cars where p.id = :id")
+    Optional<Person> findWithCarsById(Long id);
+
+    @Query("select p.id from person p where p.id in :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("select p.id from person p where p.id > :after order by p.id")
+    List<Long> findIdsAfter(Long after, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select distinct p from person p left join fetch p.cars where p.id in :ids order by p.id")
+    List<Person> findAllWithCarsByIdIn(Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p from person p left join fetch p.cars order by p.id")
+    Stream<Person> streamAllWithCars();
+
+    /**
+     * Deletes the person row alone, without cascading to the cars; nothing is deleted when the version has moved on.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from person p where p.id = :id and p.version = :version")
+    int deleteByIdAndVersion(Long id, Long version);
 }
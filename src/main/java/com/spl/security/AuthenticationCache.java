@@ -0,0 +1,91 @@
+package com.spl.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recently verified credentials, so a client sending the same Basic credentials on every request pays for
+ * BCrypt once per {@code ttl} instead of once per request. Entries are keyed on an HMAC of username and
+ * password under a random per-process key: the cache never holds a password or an unsalted hash of one.
+ */
+public class AuthenticationCache {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    private final Cache<String, UserDetails> users;
+
+    /**
+     * Bumped by every {@link #evict}, so a login verified against the old password cannot be cached after it.
+     */
+    private final ConcurrentMap<String, Long> generations = new ConcurrentHashMap<>();
+
+    public AuthenticationCache(long maximumSize, Duration ttl) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    UserDetails get(String username, String password) {
+        return users.getIfPresent(key(username, password));
+    }
+
+    /**
+     * To be read before the password is verified, and passed to {@link #put} with the result.
+     */
+    long generation(String username) {
+        return generations.getOrDefault(username, 0L);
+    }
+
+    /**
+     * Caches a login unless the user was evicted since {@code generation} was read. An eviction racing with
+     * the put either sees the entry and removes it, or has already moved the generation on, in which case the
+     * entry is taken back here.
+     */
+    void put(String username, String password, UserDetails user, long generation) {
+        if (generation(username) != generation) {
+            return;
+        }
+        String key = key(username, password);
+        users.put(key, user);
+        if (generation(username) != generation) {
+            users.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops every cached login of the user, after its password, authorities or status changed,
+     * including logins still being verified.
+     */
+    public void evict(String username) {
+        generations.merge(username, 1L, Long::sum);
+        users.asMap().values().removeIf(user -> user.getUsername().equals(username));
+    }
+
+    private String key(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
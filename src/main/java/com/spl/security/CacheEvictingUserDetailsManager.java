@@ -0,0 +1,50 @@
+package com.spl.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.Collection;
+
+/**
+ * Keeps {@link AuthenticationCache} in step with the user store: changing or deleting a user
+ * invalidates its cached logins at once instead of after the cache TTL.
+ */
+public class CacheEvictingUserDetailsManager extends InMemoryUserDetailsManager {
+
+    private final AuthenticationCache cache;
+
+    public CacheEvictingUserDetailsManager(Collection<UserDetails> users, AuthenticationCache cache) {
+        super(users);
+        this.cache = cache;
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        super.updateUser(user);
+        cache.evict(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        super.deleteUser(username);
+        cache.evict(username);
+    }
+
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        super.changePassword(oldPassword, newPassword);
+        if (current != null) {
+            cache.evict(current.getName());
+        }
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetails updated = super.updatePassword(user, newPassword);
+        cache.evict(user.getUsername());
+        return updated;
+    }
+}
@@ -0,0 +1,36 @@
+package com.spl.security;
+
+import lombok.AllArgsConstructor;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link CachingAuthenticationProvider}.
+ */
+@AllArgsConstructor
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+
+    private final AuthenticationCache cache;
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String username = authentication.getName();
+        String password = String.valueOf(authentication.getCredentials());
+        UserDetails cached = cache.get(username, password);
+        if (cached != null) {
+            return Mono.just(new UsernamePasswordAuthenticationToken(
+                    cached, authentication.getCredentials(), cached.getAuthorities()));
+        }
+        long generation = cache.generation(username);
+        return delegate.authenticate(authentication).doOnNext(result -> {
+            if (result.getPrincipal() instanceof UserDetails) {
+                cache.put(username, password, (UserDetails) result.getPrincipal(), generation);
+            }
+        });
+    }
+}
@@ -1,8 +1,10 @@
 package com.spl.security;
 
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -12,6 +14,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,14 +37,33 @@ public class SecurityConfig {
     }
 
     @Bean
-    public InMemoryUserDetailsManager configAuthentication() {
+    public AuthenticationCache authenticationCache(
+            @Value("${garage.security.auth-cache.maximum-size:10000}") long maximumSize,
+            @Value("${garage.security.auth-cache.ttl:5m}") Duration ttl) {
+        return new AuthenticationCache(maximumSize, ttl);
+    }
+
+    /**
+     * The only provider of the application, so Basic credentials go through BCrypt only on a cache miss.
+     */
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(InMemoryUserDetailsManager userDetailsManager,
+                                                                AuthenticationCache authenticationCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsManager);
+        provider.setPasswordEncoder(encoder());
+        return new CachingAuthenticationProvider(provider, authenticationCache);
+    }
+
+    @Bean
+    public InMemoryUserDetailsManager configAuthentication(AuthenticationCache authenticationCache) {
         List<UserDetails> users = new ArrayList<>();
         UserDetails user1 = User.withUsername("user1")
                 .password(encoder().encode("password1"))
                 .roles("USER")
                 .build();
         users.add(user1);
-        return new InMemoryUserDetailsManager(users);
+        return new CacheEvictingUserDetailsManager(users, authenticationCache);
     }
 
     @Bean
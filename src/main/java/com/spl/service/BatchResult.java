@@ -0,0 +1,11 @@
+package com.spl.service;
+
+import lombok.Value;
+
+/**
+ * Outcome of a batch update or delete: how many of the requested cars existed and were changed.
+ */
+@Value
+public class BatchResult {
+    int affected;
+}
@@ -0,0 +1,210 @@
+package com.spl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.spl.cache.GarageCaches;
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.outbox.ChangeLog;
+import com.spl.repository.CarRepository;
+import com.spl.repository.PersonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static java.lang.String.format;
+
+/**
+ * Imports large car and person payloads row by row without holding the whole payload in memory.
+ * Rows are validated as they are read and stored in chunks of {@link #CHUNK_SIZE}: one transaction and
+ * a handful of existence lookups per chunk, with inserts sent as JDBC batches
+ * ({@code hibernate.jdbc.batch_size}). A chunk the database still rejects is replayed row by row,
+ * so a single bad row never fails its neighbours.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+    static final int CHUNK_SIZE = 500;
+
+    private final CarRepository carRepository;
+
+    private final PersonRepository personRepository;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final GarageCaches caches;
+
+    private final ChangeLog changes;
+
+    public BulkResult importCars(MappingIterator<Car> rows) {
+        return importRows(rows, this::storeCars);
+    }
+
+    public BulkResult importPersons(MappingIterator<Person> rows) {
+        return importRows(rows, this::storePersons);
+    }
+
+    private <T> BulkResult importRows(MappingIterator<T> rows, ChunkStore<T> store) {
+        BulkResult result = new BulkResult();
+        List<Row<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        while (true) {
+            T value;
+            try {
+                if (!rows.hasNextValue()) {
+                    break;
+                }
+                value = rows.nextValue();
+            } catch (JsonMappingException e) {
+                result.reject(index++, e.getOriginalMessage());
+                continue;
+            } catch (JsonProcessingException e) {
+                result.reject(index, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+                break;
+            } catch (IOException e) {
+                result.reject(index, "Could not read request body, import stopped");
+                break;
+            }
+            Set<String> errors = value == null ? Set.of("Row should not be null") : violations(value);
+            if (errors.isEmpty()) {
+                chunk.add(new Row<>(index, value));
+            } else {
+                result.reject(index, errors);
+            }
+            index++;
+            if (chunk.size() == CHUNK_SIZE) {
+                store.store(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            store.store(chunk, result);
+        }
+        result.getRejected().sort(Comparator.comparingInt(BulkResult.RowError::getIndex));
+        return result;
+    }
+
+    private void storeCars(List<Row<Car>> chunk, BulkResult result) {
+        Set<String> existingVins = carRepository.findExistingVins(values(chunk, Car::getVin));
+        Set<String> existingNumbers = carRepository.findExistingNumbers(values(chunk, Car::getNumber));
+        Set<Long> existingOwners = personRepository.findExistingIds(values(chunk, Car::getOwner));
+        Set<String> seenVins = new HashSet<>();
+        Set<String> seenNumbers = new HashSet<>();
+        List<Row<Car>> accepted = new ArrayList<>(chunk.size());
+        for (Row<Car> row : chunk) {
+            Car car = row.getValue();
+            if (existingVins.contains(car.getVin()) || seenVins.contains(car.getVin())) {
+                result.reject(row.getIndex(), "This vin is already exists");
+            } else if (existingNumbers.contains(car.getNumber()) || seenNumbers.contains(car.getNumber())) {
+                result.reject(row.getIndex(), "This number is already exists");
+            } else if (!existingOwners.contains(car.getOwner())) {
+                result.reject(row.getIndex(), format("No person with id %d in DB", car.getOwner()));
+            } else {
+                seenVins.add(car.getVin());
+                seenNumbers.add(car.getNumber());
+                accepted.add(row);
+            }
+        }
+        persist(accepted, result, car -> changes.car(car, CREATED), car -> {
+            car.setVersion(null);
+            car.setSyncSeq(null);
+        });
+        values(accepted, Car::getOwner).forEach(caches::evictPerson);
+    }
+
+    private void storePersons(List<Row<Person>> chunk, BulkResult result) {
+        List<Row<Person>> accepted = new ArrayList<>(chunk.size());
+        for (Row<Person> row : chunk) {
+            Person person = row.getValue();
+            if (person.getCars() != null && !person.getCars().isEmpty()) {
+                result.reject(row.getIndex(), "Cars should be imported via /cars/bulk");
+            } else {
+                person.setId(null);
+                accepted.add(row);
+            }
+        }
+        persist(accepted, result, person -> changes.person(person, CREATED), person -> {
+            person.setId(null);
+            person.setVersion(null);
+            person.setSyncSeq(null);
+        });
+    }
+
+    /**
+     * @param created records the change event of a persisted row, in the same transaction
+     * @param reset   clears what a rolled back persist left on a row (generated id, version, sync sequence),
+     *                which would otherwise make Hibernate take the row for a detached entity on its retry
+     */
+    private <T> void persist(List<Row<T>> rows, BulkResult result, Consumer<T> created, Consumer<T> reset) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            persistInTransaction(rows, created);
+            result.accept(rows.size());
+        } catch (PersistenceException | DataAccessException e) {
+            for (Row<T> row : rows) {
+                reset.accept(row.getValue());
+                try {
+                    persistInTransaction(List.of(row), created);
+                    result.accept(1);
+                } catch (PersistenceException | DataAccessException rowException) {
+                    result.reject(row.getIndex(), "Rejected by the database");
+                }
+            }
+        }
+    }
+
+    private <T> void persistInTransaction(List<Row<T>> rows, Consumer<T> created) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                rows.forEach(row -> {
+                    entityManager.persist(row.getValue());
+                    created.accept(row.getValue());
+                });
+                entityManager.flush();
+            } finally {
+                entityManager.clear();
+            }
+        });
+    }
+
+    private <T> Set<String> violations(T value) {
+        return validator.validate(value).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+    }
+
+    private static <T, V> Set<V> values(List<Row<T>> rows, Function<T, V> getter) {
+        return rows.stream().map(row -> getter.apply(row.getValue())).collect(Collectors.toSet());
+    }
+
+    @FunctionalInterface
+    private interface ChunkStore<T> {
+        void store(List<Row<T>> chunk, BulkResult result);
+    }
+
+    @Value
+    private static class Row<T> {
+        int index;
+        T value;
+    }
+}
@@ -0,0 +1,37 @@
+package com.spl.service;
+
+import lombok.Data;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of a bulk import: how many rows were stored and why every other row was rejected.
+ * Row indexes are zero-based positions in the submitted array or NDJSON stream.
+ */
+@Data
+public class BulkResult {
+    private int accepted;
+    private final List<RowError> rejected = new ArrayList<>();
+
+    public void accept(int rows) {
+        accepted += rows;
+    }
+
+    public void reject(int index, Collection<String> errors) {
+        rejected.add(new RowError(index, Set.copyOf(errors)));
+    }
+
+    public void reject(int index, String error) {
+        rejected.add(new RowError(index, Set.of(error)));
+    }
+
+    @Value
+    public static class RowError {
+        int index;
+        Set<String> errors;
+    }
+}
@@ -0,0 +1,35 @@
+package com.spl.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Body of {@code PATCH /api/cars}: the values to set on every listed car. Absent fields are left as they are;
+ * the number is unique per car, so it cannot be set in a batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarBatchUpdate {
+    @NotEmpty(message = "VINs should not be empty")
+    private List<String> vins;
+
+    @Size(min = 2, max = 20)
+    private String manufacturer;
+
+    @Size(min = 2, max = 20)
+    private String model;
+
+    @Min(value = 1L, message = "Owner Id should be greater then 0")
+    private Long owner;
+
+    public boolean isEmpty() {
+        return manufacturer == null && model == null && owner == null;
+    }
+}
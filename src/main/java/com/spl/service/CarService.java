@@ -1,17 +1,58 @@
 package com.spl.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarFilter;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CarService {
     List<Car> getCars();
 
+    List<Car> getCars(String after, int limit);
+
+    /**
+     * Keyset page of the cars matching {@code filter}, filtered in the database.
+     */
+    List<Car> search(CarFilter filter, String after, int limit);
+
+    void streamCars(Consumer<Car> action);
+
     Car add(Car car);
 
     Car findCar(String vin);
 
-    Car updateCar(String vin, Car car);
+    Person findOwner(String vin);
+
+    /**
+     * @param ifMatch {@code If-Match} header of the request, or {@code null}; a stale tag fails with 412
+     */
+    Car updateCar(String vin, Car car, String ifMatch);
+
+    Car upsert(String vin, Car car, String ifMatch);
+
+    /**
+     * Applies a JSON Merge Patch of the number, manufacturer, model or owner; see {@link MergePatch}.
+     */
+    Car patch(String vin, JsonNode patch, String ifMatch);
+
+    void remove(String vin, String ifMatch);
+
+    /**
+     * Sets the values of {@code update} on every listed car that exists, with one statement.
+     */
+    BatchResult updateAll(CarBatchUpdate update);
+
+    /**
+     * Deletes every listed car that exists, with one statement.
+     */
+    BatchResult removeAll(Collection<String> vins);
 
-    void remove(String vin);
+    /**
+     * Deletes every car of {@code owner}, with one statement.
+     */
+    BatchResult removeByOwner(Long owner);
 }
@@ -1,52 +1,311 @@
 package com.spl.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spl.cache.GarageCaches;
 import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.outbox.ChangeLog;
+import com.spl.repository.CarFilter;
 import com.spl.repository.CarRepository;
+import com.spl.repository.CarSpecifications;
+import com.spl.sync.SyncSequence;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
 import static java.lang.String.format;
-import static org.springframework.http.HttpStatus.BAD_REQUEST;
-import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.*;
 
 @Service
 @AllArgsConstructor
 public class CarServiceImp implements CarService{
 
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final Set<String> FOREIGN_KEY_VIOLATIONS = Set.of("23503", "23506");
+    private static final Set<String> PATCHABLE = Set.of("number", "manufacturer", "model", "owner");
+    static final int MAX_BATCH = 1000;
+
     private final CarRepository repository;
 
+    private final EntityManager entityManager;
+
+    private final GarageCaches caches;
+
+    private final ChangeLog changes;
+
+    private final SyncSequence syncSequence;
+
+    private final MergePatch mergePatch;
+
     public List<Car> getCars() {
         return repository.findAll();
     }
 
+    public List<Car> getCars(String after, int limit) {
+        return repository.findByVinGreaterThanOrderByVin(after == null ? "" : after, PageRequest.of(0, limit));
+    }
+
+    public List<Car> search(CarFilter filter, String after, int limit) {
+        return repository.search(CarSpecifications.matching(filter), after, limit);
+    }
+
+    /**
+     * Hands every car to {@code action} in VIN order while the rows are read from an open JDBC cursor.
+     * Each car is detached once consumed, so the persistence context does not grow with the table.
+     */
+    @Transactional
+    public void streamCars(Consumer<Car> action) {
+        try (Stream<Car> cars = repository.streamAll()) {
+            cars.forEach(car -> {
+                action.accept(car);
+                entityManager.detach(car);
+            });
+        }
+    }
+
+    @Transactional
     public Car add(Car car) {
-        repository.findById(car.getVin()).ifPresent(c -> {
-            throw new ResponseStatusException(BAD_REQUEST, "This vin is already exists");
-        });
-        return repository.save(car);
+        Car saved = insert(car);
+        changes.car(saved, CREATED);
+        caches.evictPerson(saved.getOwner());
+        return saved;
     }
 
     public Car findCar(String vin) {
-        return repository.findById(vin).orElseThrow(() -> new ResponseStatusException(NOT_FOUND,
+        return repository.findById(vin).orElseThrow(() -> new ExpectedStatusException(NOT_FOUND,
                 format("No car with vin %s in DB", vin)));
     }
 
+    public Person findOwner(String vin) {
+        return repository.findOwnerByVin(vin).orElseThrow(() -> new ExpectedStatusException(NOT_FOUND,
+                format("No car with vin %s in DB", vin)));
+    }
+
+    /**
+     * Replaces every field of the stored car, the owner included, like {@link #upsert}; the previous and the new
+     * owner both have their cached list of cars evicted.
+     */
     @Transactional
-    public Car updateCar(String vin, Car car) {
-        Car existing = repository.findById(vin).orElseThrow(() -> new ResponseStatusException(NOT_FOUND,
+    public Car updateCar(String vin, Car car, String ifMatch) {
+        Car existing = repository.findById(vin).orElseThrow(() -> new ExpectedStatusException(NOT_FOUND,
                 format("No car with vin %s in DB", vin)));
-        existing.setVin(car.getVin());
+        ETags.checkMatch(ifMatch, ETags.of(existing), resource(vin));
+        if (!vin.equals(car.getVin())) {
+            return changeVin(existing, car);
+        }
+        Long owner = existing.getOwner();
         existing.setNumber(car.getNumber());
         existing.setManufacturer(car.getManufacturer());
         existing.setModel(car.getModel());
+        existing.setOwner(car.getOwner());
+        flush(existing);
+        changes.car(existing, UPDATED);
+        caches.evictPerson(owner);
+        if (!owner.equals(existing.getOwner())) {
+            caches.evictPerson(existing.getOwner());
+        }
+        return existing;
+    }
+
+    /**
+     * The VIN is the primary key, which Hibernate cannot change on a loaded car, so the row is moved with one
+     * statement, guarded by the version just checked, and read back under its new VIN. The change feed shows
+     * the old VIN deleted and the new one created.
+     */
+    private Car changeVin(Car existing, Car car) {
+        String vin = existing.getVin();
+        int moved;
+        try {
+            moved = repository.changeVin(vin, existing.getVersion(), car, syncSequence.next());
+        } catch (DataIntegrityViolationException e) {
+            throw constraintViolation(car.getOwner(), e);
+        }
+        if (moved == 0) {
+            throw new ResponseStatusException(PRECONDITION_FAILED, format("%s has been modified", resource(vin)));
+        }
+        Car renamed = repository.findById(car.getVin()).orElseThrow();
+        changes.car(vin, DELETED);
+        changes.car(renamed, CREATED);
+        caches.evictPerson(existing.getOwner());
+        if (!existing.getOwner().equals(renamed.getOwner())) {
+            caches.evictPerson(renamed.getOwner());
+        }
+        return renamed;
+    }
+
+    /**
+     * Replaces the car stored under {@code vin}, or inserts it when there is none.
+     * Two concurrent upserts of a new VIN cannot both insert: the loser gets a 409.
+     */
+    @Transactional
+    public Car upsert(String vin, Car car, String ifMatch) {
+        if (!vin.equals(car.getVin())) {
+            throw new ExpectedStatusException(BAD_REQUEST, "VIN in the body should match the path");
+        }
+        Optional<Car> current = repository.findById(vin);
+        ETags.checkMatch(ifMatch, current.map(ETags::of).orElse(null), resource(vin));
+        Car stored = current.map(existing -> {
+            caches.evictPerson(existing.getOwner());
+            existing.setNumber(car.getNumber());
+            existing.setManufacturer(car.getManufacturer());
+            existing.setModel(car.getModel());
+            existing.setOwner(car.getOwner());
+            changes.car(existing, UPDATED);
+            return flush(existing);
+        }).orElseGet(() -> {
+            Car inserted = insert(car);
+            changes.car(inserted, CREATED);
+            return inserted;
+        });
+        caches.evictPerson(stored.getOwner());
+        return stored;
+    }
+
+    /**
+     * Only the patched columns are written, and only their constraints are checked.
+     */
+    @Transactional
+    public Car patch(String vin, JsonNode patch, String ifMatch) {
+        Car existing = repository.findById(vin).orElseThrow(() -> new ExpectedStatusException(NOT_FOUND,
+                format("No car with vin %s in DB", vin)));
+        ETags.checkMatch(ifMatch, ETags.of(existing), resource(vin));
+        Long owner = existing.getOwner();
+        flush(mergePatch.apply(patch, existing, PATCHABLE));
+        changes.car(existing, UPDATED);
+        caches.evictPerson(owner);
+        if (!owner.equals(existing.getOwner())) {
+            caches.evictPerson(existing.getOwner());
+        }
         return existing;
     }
 
-    public void remove(String vin) {
-        repository.deleteById(vin);
+    private Car insert(Car car) {
+        try {
+            return repository.insert(car);
+        } catch (DataIntegrityViolationException e) {
+            throw constraintViolation(car.getOwner(), e);
+        }
+    }
+
+    private Car flush(Car car) {
+        try {
+            repository.flush();
+            return car;
+        } catch (DataIntegrityViolationException e) {
+            throw constraintViolation(car.getOwner(), e);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(PRECONDITION_FAILED, format("%s has been modified", resource(car.getVin())));
+        }
+    }
+
+    private static String resource(String vin) {
+        return format("Car with vin %s", vin);
+    }
+
+    /**
+     * Maps a violated constraint of the {@code cars} table to the error the client can act on.
+     */
+    private static RuntimeException constraintViolation(Long owner, DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return e;
+        }
+        ConstraintViolationException violation = (ConstraintViolationException) e.getCause();
+        if (UNIQUE_VIOLATION.equals(violation.getSQLState())) {
+            return String.valueOf(violation.getConstraintName()).toUpperCase().contains("CARS_NUMBER_UQ")
+                    ? new ResponseStatusException(CONFLICT, "This number is already exists")
+                    : new ResponseStatusException(CONFLICT, "This vin is already exists");
+        }
+        if (FOREIGN_KEY_VIOLATIONS.contains(violation.getSQLState())) {
+            return new ExpectedStatusException(BAD_REQUEST, format("No person with id %d in DB", owner));
+        }
+        return e;
+    }
+
+    @Transactional
+    public void remove(String vin, String ifMatch) {
+        Optional<Car> current = repository.findById(vin);
+        ETags.checkMatch(ifMatch, current.map(ETags::of).orElse(null), resource(vin));
+        current.ifPresent(car -> {
+            repository.delete(car);
+            changes.car(car, DELETED);
+            flush(car);
+            caches.evictPerson(car.getOwner());
+        });
+    }
+
+    /**
+     * Reads only the keys and owners of the cars, for the change log and the caches, and updates them with one
+     * statement. All of them get the same modification sequence value.
+     */
+    @Transactional
+    public BatchResult updateAll(CarBatchUpdate update) {
+        if (update.isEmpty()) {
+            throw new ExpectedStatusException(BAD_REQUEST, "Nothing to update");
+        }
+        Set<String> vins = repository.findExistingVins(checkBatch(update.getVins()));
+        if (vins.isEmpty()) {
+            return new BatchResult(0);
+        }
+        Set<Long> owners = new HashSet<>(repository.findOwnersByVinIn(vins));
+        int updated;
+        try {
+            updated = repository.update(vins, update.getManufacturer(), update.getModel(), update.getOwner(),
+                    syncSequence.next());
+        } catch (DataIntegrityViolationException e) {
+            throw constraintViolation(update.getOwner(), e);
+        }
+        if (update.getOwner() != null) {
+            owners.add(update.getOwner());
+        }
+        vins.forEach(vin -> changes.car(vin, UPDATED));
+        owners.forEach(caches::evictPerson);
+        return new BatchResult(updated);
+    }
+
+    @Transactional
+    public BatchResult removeAll(Collection<String> vins) {
+        Set<String> existing = repository.findExistingVins(checkBatch(vins));
+        return existing.isEmpty() ? new BatchResult(0) : delete(existing, repository.findOwnersByVinIn(existing));
+    }
+
+    /**
+     * Deletes exactly the cars read beforehand, so a car the owner gets meanwhile is neither deleted
+     * nor missing from the change log.
+     */
+    @Transactional
+    public BatchResult removeByOwner(Long owner) {
+        Set<String> vins = repository.findVinsByOwner(owner);
+        return vins.isEmpty() ? new BatchResult(0) : delete(vins, Set.of(owner));
+    }
+
+    private BatchResult delete(Set<String> vins, Set<Long> owners) {
+        int deleted = repository.deleteByVinIn(vins);
+        vins.forEach(vin -> changes.car(vin, DELETED));
+        owners.forEach(caches::evictPerson);
+        return new BatchResult(deleted);
+    }
+
+    private static Collection<String> checkBatch(Collection<String> vins) {
+        if (vins.size() > MAX_BATCH) {
+            throw new ExpectedStatusException(BAD_REQUEST, format("At most %d VINs can be changed at once", MAX_BATCH));
+        }
+        return vins;
     }
 }
@@ -0,0 +1,20 @@
+package com.spl.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A client error the services answer in the normal course of business, such as an unknown id.
+ * It is turned into a response and never logged, so it skips capturing a stack trace.
+ */
+public class ExpectedStatusException extends ResponseStatusException {
+
+    public ExpectedStatusException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,66 @@
+package com.spl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.lang.String.format;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7396) to an entity: the members of the patch overwrite the matching fields and
+ * everything else is left alone. Only the constraints of the patched fields are checked, so a patch of one field
+ * does not pay for validating the whole entity. A {@code null} member clears its field, which the constraints of
+ * a required field reject.
+ */
+@Component
+@RequiredArgsConstructor
+public class MergePatch {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    /**
+     * @param fields the fields a patch may touch
+     * @throws ConstraintViolationException when a patched field is now invalid; the caller's transaction must
+     *                                      roll back, since {@code target} has been changed already
+     */
+    public <T> T apply(JsonNode patch, T target, Set<String> fields) {
+        if (!patch.isObject()) {
+            throw new ExpectedStatusException(BAD_REQUEST, "Merge patch should be a JSON object");
+        }
+        Set<String> patched = new LinkedHashSet<>();
+        patch.fieldNames().forEachRemaining(patched::add);
+        Set<String> unknown = new TreeSet<>(patched);
+        unknown.removeAll(fields);
+        if (!unknown.isEmpty()) {
+            throw new ExpectedStatusException(BAD_REQUEST, format("Fields %s cannot be patched", unknown));
+        }
+        try {
+            objectMapper.readerForUpdating(target).readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new ExpectedStatusException(BAD_REQUEST, format("Malformed merge patch: %s", e.getOriginalMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Set<ConstraintViolation<T>> violations = new LinkedHashSet<>();
+        patched.forEach(field -> violations.addAll(validator.validateProperty(target, field)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return target;
+    }
+}
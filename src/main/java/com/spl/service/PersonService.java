@@ -1,17 +1,31 @@
 package com.spl.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.spl.entity.Person;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PersonService {
     List<Person> findAll();
 
+    List<Person> findAll(Long after, int limit);
+
+    void streamAll(Consumer<Person> action);
+
     Person findById(Long id);
 
     Person add(Person person);
 
-    Person update(Long id, Person person);
+    /**
+     * @param ifMatch {@code If-Match} header of the request, or {@code null}; a stale tag fails with 412
+     */
+    Person update(Long id, Person person, String ifMatch);
+
+    /**
+     * Applies a JSON Merge Patch of the first or last name; see {@link MergePatch}.
+     */
+    Person patch(Long id, JsonNode patch, String ifMatch);
 
-    void remove(Long id);
+    void remove(Long id, String ifMatch);
 }
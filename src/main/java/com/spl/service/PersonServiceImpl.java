@@ -1,45 +1,166 @@
 package com.spl.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.spl.cache.GarageCaches;
 import com.spl.entity.Person;
+import com.spl.outbox.ChangeLog;
 import com.spl.repository.PersonRepository;
 import lombok.AllArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
 import static java.lang.String.format;
 
 @Service
 @AllArgsConstructor
 public class PersonServiceImpl implements PersonService{
+    private static final Set<String> PATCHABLE = Set.of("firstName", "lastName");
+
     private final PersonRepository repository;
 
+    private final EntityManager entityManager;
+
+    private final GarageCaches caches;
+
+    private final ChangeLog changes;
+
+    private final CarService carService;
+
+    private final MergePatch mergePatch;
+
     public List<Person> findAll() {
-        return repository.findAll();
+        return repository.findAllWithCars();
     }
 
+    /**
+     * Pages over ids first and fetch-joins the cars of that page in a second statement:
+     * limiting a collection fetch directly would make Hibernate page in memory.
+     */
+    public List<Person> findAll(Long after, int limit) {
+        List<Long> ids = repository.findIdsAfter(after == null ? 0L : after, PageRequest.of(0, limit));
+        return ids.isEmpty() ? List.of() : repository.findAllWithCarsByIdIn(ids);
+    }
+
+    /**
+     * Hands every person to {@code action} in id order while the rows are read from an open JDBC cursor.
+     * Each person is detached once consumed, so the persistence context does not grow with the table.
+     */
+    @Transactional
+    public void streamAll(Consumer<Person> action) {
+        try (Stream<Person> persons = repository.streamAllWithCars()) {
+            persons.forEach(person -> {
+                action.accept(person);
+                entityManager.detach(person);
+            });
+        }
+    }
+
+    /**
+     * Loads the person and then the cars by id rather than with one join, so both can come from the
+     * Hibernate second-level cache.
+     */
+    @Transactional
     public Person findById(Long id) {
-        return repository.findById(id).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, format("No person with id %d in DB", id)));
+        Person person = repository.findById(id).orElseThrow(
+                () -> new ExpectedStatusException(HttpStatus.NOT_FOUND, format("No person with id %d in DB", id)));
+        Hibernate.initialize(person.getCars());
+        return person;
     }
 
+    @Transactional
     public Person add(Person person) {
-        return repository.save(person);
+        Person saved = repository.save(person);
+        changes.person(saved, CREATED);
+        return saved;
     }
 
     @Transactional
-    public Person update(Long id, Person person) {
-        Person existing = repository.findById(id).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, format("No person with id %d in DB", id)));
+    public Person update(Long id, Person person, String ifMatch) {
+        Person existing = repository.findWithCarsById(id).orElseThrow(
+                () -> new ExpectedStatusException(HttpStatus.NOT_FOUND, format("No person with id %d in DB", id)));
+        ETags.checkMatch(ifMatch, ETags.of(existing), resource(id));
         existing.setFirstName(person.getFirstName());
         existing.setLastName(person.getLastName());
+        changes.person(existing, UPDATED);
+        flush(id);
+        caches.evictPerson(id);
+        return existing;
+    }
+
+    /**
+     * Only the patched columns are written, and only their constraints are checked.
+     */
+    @Transactional
+    public Person patch(Long id, JsonNode patch, String ifMatch) {
+        Person existing = repository.findWithCarsById(id).orElseThrow(
+                () -> new ExpectedStatusException(HttpStatus.NOT_FOUND, format("No person with id %d in DB", id)));
+        ETags.checkMatch(ifMatch, ETags.of(existing), resource(id));
+        mergePatch.apply(patch, existing, PATCHABLE);
+        changes.person(existing, UPDATED);
+        flush(id);
+        caches.evictPerson(id);
         return existing;
     }
 
-    public void remove(Long id) {
-        repository.deleteById(id);
+    /**
+     * The owned cars are deleted first, with one statement, and then the person row alone, so nothing cascades
+     * car by car. The cars are only loaded when an {@code If-Match} tag, which covers them, has to be checked.
+     * A car added for the person by a concurrent transaction after its cars were read still references the row,
+     * so the delete fails on the foreign key; that is answered like any other concurrent modification.
+     */
+    @Transactional
+    public void remove(Long id, String ifMatch) {
+        Optional<Person> current = ifMatch == null ? repository.findById(id) : repository.findWithCarsById(id);
+        if (ifMatch != null) {
+            ETags.checkMatch(ifMatch, current.map(ETags::of).orElse(null), resource(id));
+        }
+        current.ifPresent(person -> {
+            carService.removeByOwner(id);
+            if (delete(person) == 0) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, format("%s has been modified", resource(id)));
+            }
+            changes.person(person, DELETED);
+            caches.evictPerson(id);
+        });
+    }
+
+    private int delete(Person person) {
+        try {
+            return repository.deleteByIdAndVersion(person.getId(), person.getVersion());
+        } catch (DataIntegrityViolationException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Flushes inside the transaction so a concurrent update of the same row surfaces as 412 here
+     * rather than as a failed commit.
+     */
+    private void flush(Long id) {
+        try {
+            repository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, format("%s has been modified", resource(id)));
+        }
+    }
+
+    private static String resource(Long id) {
+        return format("Person with id %d", id);
     }
 }
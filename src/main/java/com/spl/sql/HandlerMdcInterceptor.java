@@ -0,0 +1,29 @@
+package com.spl.sql;
+
+import org.slf4j.MDC;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Puts the controller method serving the request, e.g. {@code CarController.findCar}, into the MDC
+ * as {@value SlowQueryLog#HANDLER}, where {@link SlowQueryLog} and log patterns can pick it up.
+ */
+class HandlerMdcInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            MDC.put(SlowQueryLog.HANDLER, method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MDC.remove(SlowQueryLog.HANDLER);
+    }
+}
@@ -0,0 +1,125 @@
+package com.spl.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Logs JDBC executions slower than a threshold to the {@code garage.sql.slow} logger as one logfmt line:
+ * <pre>
+ * slow_query duration_ms=734 threshold_ms=200 handler=CarController.findCar success=true batch=false statements=1 sql="select ... where c.vin=?" params="[String]"
+ * </pre>
+ * Bound values are never written, only their types. {@code handler} is the controller method of the current
+ * request ({@value #HANDLER} in the MDC), {@code -} outside of one.
+ * <p>
+ * Logging is sampled: a slow execution is written with probability {@code sampleRate}, and never more than
+ * {@code maxPerSecond} lines a second, so a database that slows down as a whole cannot flood the log.
+ * Every slow execution is still counted as {@code garage.sql.slow}, tagged with whether it was logged.
+ */
+public class SlowQueryLog implements QueryExecutionListener {
+    public static final String HANDLER = "handler";
+    static final String METRIC = "garage.sql.slow";
+
+    private static final Logger log = LoggerFactory.getLogger("garage.sql.slow");
+
+    private final long thresholdMillis;
+
+    private final double sampleRate;
+
+    private final int maxPerSecond;
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private final AtomicLong window = new AtomicLong();
+
+    public SlowQueryLog(Duration threshold, double sampleRate, int maxPerSecond, ObjectProvider<MeterRegistry> registry) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (execution.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+        boolean logged = sampled() && log.isWarnEnabled();
+        if (logged) {
+            log.warn("slow_query duration_ms={} threshold_ms={} handler={} success={} batch={} statements={} sql=\"{}\" params=\"{}\"",
+                    execution.getElapsedTime(), thresholdMillis, handler(), execution.isSuccess(), execution.isBatch(),
+                    queries.size(), escape(sql(queries)), parameterTypes(queries));
+        }
+        registry.ifAvailable(meters -> meters.counter(METRIC, "logged", String.valueOf(logged)).increment());
+    }
+
+    private boolean sampled() {
+        return ThreadLocalRandom.current().nextDouble() < sampleRate && withinRate(System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * {@code window} holds the current second in its high bits and the lines written in it in the low 20 bits.
+     */
+    private boolean withinRate(long second) {
+        while (true) {
+            long current = window.get();
+            long next = current >>> 20 == second ? current + 1 : second << 20 | 1;
+            if ((next & 0xFFFFF) > maxPerSecond) {
+                return false;
+            }
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static String handler() {
+        String handler = MDC.get(HANDLER);
+        return handler == null ? "-" : handler;
+    }
+
+    private static String sql(List<QueryInfo> queries) {
+        return queries.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Types of the first parameter set; a batch repeats the same statement with more sets of the same shape.
+     */
+    private static String parameterTypes(List<QueryInfo> queries) {
+        if (queries.isEmpty() || queries.get(0).getParametersList().isEmpty()) {
+            return "[]";
+        }
+        return queries.get(0).getParametersList().get(0).stream()
+                .map(SlowQueryLog::parameterType)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String parameterType(ParameterSetOperation operation) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+            return "null";
+        }
+        Object[] args = operation.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    private static String escape(String sql) {
+        return sql.replace("\\", "\\\\").replace("\"", "\\\"").replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,69 @@
+package com.spl.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Times every JDBC execution by wrapping the {@link DataSource} in a datasource-proxy, and reports the slow ones
+ * through {@link SlowQueryLog}. Configured with {@code garage.sql.slow-query.*}; the threshold is checked after
+ * a single clock read per statement, so fast statements cost next to nothing.
+ */
+@Configuration
+@ConditionalOnProperty(name = "garage.sql.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${garage.sql.slow-query.threshold:500ms}") Duration threshold,
+                                     @Value("${garage.sql.slow-query.sample-rate:1.0}") double sampleRate,
+                                     @Value("${garage.sql.slow-query.max-per-second:50}") int maxPerSecond,
+                                     ObjectProvider<MeterRegistry> registry) {
+        return new SlowQueryLog(threshold, sampleRate, maxPerSecond, registry);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourceWrapper(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(slowQueryLog.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = SERVLET)
+    @ConditionalOnProperty(name = "garage.sql.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    static class HandlerMdcConfig {
+
+        @Bean
+        public WebMvcConfigurer handlerMdc() {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry interceptors) {
+                    interceptors.addInterceptor(new HandlerMdcInterceptor());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.spl.sync;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * One line of the {@code GET /api/sync} delta: the current state of a changed car or person, without the cars
+ * of a person, or a tombstone with {@code deleted: true} and only the key. Absent fields are left out.
+ */
+@Value
+@Builder
+@JsonInclude(NON_NULL)
+public class SyncRecord {
+    public static final String CAR = "car";
+    public static final String PERSON = "person";
+
+    long seq;
+    String type;
+    String vin;
+    Long id;
+    String number;
+    String manufacturer;
+    String model;
+    Long owner;
+    String firstName;
+    String lastName;
+    Boolean deleted;
+}
@@ -0,0 +1,86 @@
+package com.spl.sync;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Hands out modification sequence values from blocks of the {@code sync_seq} database sequence, in increasing order.
+ * <p>
+ * A value is taken before its transaction commits, so a reader could see a higher value committed while a lower one
+ * is still on its way and then skip the lower one for good. Values are therefore tracked until their transaction
+ * ends, and readers only look below the {@link #horizon()}: the lowest value still in flight, or the next one to be
+ * handed out. This holds within one application instance, like the outbox dispatcher.
+ */
+@Component
+public class SyncSequence {
+    /**
+     * Increment of the {@code sync_seq} sequence.
+     */
+    static final int BLOCK_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+    private long next;
+
+    private long blockEnd;
+
+    public SyncSequence(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public long next() {
+        long value;
+        boolean tracked = TransactionSynchronizationManager.isSynchronizationActive();
+        synchronized (this) {
+            if (next == blockEnd) {
+                allocateBlock();
+            }
+            value = next++;
+            if (tracked) {
+                inFlight.add(value);
+            }
+        }
+        if (tracked) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(value);
+                }
+            });
+        }
+        return value;
+    }
+
+    /**
+     * Every value below the horizon belongs to a finished transaction, or to none that will ever commit. With
+     * nothing in flight it is the next value to be handed out, so a value taken while a reader runs its query is
+     * never below it. Before the first value is handed out a block is taken, which puts the horizon above the
+     * values the migration gave to the existing rows.
+     */
+    public synchronized long horizon() {
+        if (!inFlight.isEmpty()) {
+            return inFlight.first();
+        }
+        if (blockEnd == 0) {
+            allocateBlock();
+        }
+        return next;
+    }
+
+    private void allocateBlock() {
+        next = jdbcTemplate.queryForObject("select next value for sync_seq", Long.class);
+        blockEnd = next + BLOCK_SIZE;
+    }
+
+    private synchronized void release(long value) {
+        inFlight.remove(value);
+    }
+}
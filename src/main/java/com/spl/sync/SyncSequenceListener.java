@@ -0,0 +1,23 @@
+package com.spl.sync;
+
+import com.spl.entity.SyncStamped;
+import lombok.RequiredArgsConstructor;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Stamps cars and persons with the next modification sequence value whenever their row is inserted or updated.
+ * Hibernate creates it through Spring, which injects the {@link SyncSequence}.
+ */
+@RequiredArgsConstructor
+public class SyncSequenceListener {
+
+    private final SyncSequence sequence;
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(Object entity) {
+        ((SyncStamped) entity).setSyncSeq(sequence.next());
+    }
+}
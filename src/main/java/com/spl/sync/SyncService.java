@@ -0,0 +1,66 @@
+package com.spl.sync;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Reads the delta of the car and person tables since a modification sequence value: changed rows and the tombstones
+ * of deleted ones, in sequence order, straight from one JDBC cursor.
+ */
+@Service
+public class SyncService {
+    private static final String DELTA = "select sync_seq seq, 'CAR' entity, vin, cast(null as bigint) id, number, "
+            + "manufacturer, model, person_id owner, cast(null as varchar) first_name, cast(null as varchar) last_name, "
+            + "false deleted from cars "
+            + "where sync_seq > ? and sync_seq < ? "
+            + "union all select sync_seq, 'PERSON', null, id, null, null, null, null, first_name, last_name, false "
+            + "from persons where sync_seq > ? and sync_seq < ? "
+            + "union all select seq, entity, case when entity = 'CAR' then entity_id end, "
+            + "case when entity = 'PERSON' then cast(entity_id as bigint) end, null, null, null, null, null, null, true "
+            + "from sync_tombstones where seq > ? and seq < ? "
+            + "order by seq";
+
+    private final SyncSequence sequence;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyncService(SyncSequence sequence, DataSource dataSource) {
+        this.sequence = sequence;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(500);
+    }
+
+    /**
+     * Hands every change after {@code since} to {@code action}. Changes of transactions still running, and anything
+     * after them, are left for the next call; the highest {@code seq} handed out is where that call should start.
+     */
+    public void changesSince(long since, Consumer<SyncRecord> action) {
+        long horizon = sequence.horizon();
+        jdbcTemplate.query(DELTA, (RowCallbackHandler) row -> action.accept(record(row)),
+                since, horizon, since, horizon, since, horizon);
+    }
+
+    private static SyncRecord record(ResultSet row) throws SQLException {
+        boolean car = "CAR".equals(row.getString("entity"));
+        boolean deleted = row.getBoolean("deleted");
+        return SyncRecord.builder()
+                .seq(row.getLong("seq"))
+                .type(car ? SyncRecord.CAR : SyncRecord.PERSON)
+                .vin(row.getString("vin"))
+                .id(row.getObject("id", Long.class))
+                .number(row.getString("number"))
+                .manufacturer(row.getString("manufacturer"))
+                .model(row.getString("model"))
+                .owner(row.getObject("owner", Long.class))
+                .firstName(row.getString("first_name"))
+                .lastName(row.getString("last_name"))
+                .deleted(deleted ? Boolean.TRUE : null)
+                .build();
+    }
+}
@@ -1,20 +1,32 @@
 package com.spl.web;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spl.entity.Car;
 import com.spl.entity.Person;
+import com.spl.repository.CarFilter;
+import com.spl.service.BatchResult;
+import com.spl.service.BulkImportService;
+import com.spl.service.BulkResult;
+import com.spl.service.CarBatchUpdate;
 import com.spl.service.CarService;
-import com.spl.service.PersonService;
+import com.spl.service.ETags;
+import com.spl.service.MergePatch;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Set;
 
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @RequiredArgsConstructor
 @RestController
@@ -23,11 +35,32 @@ public class CarController {
 
     private final CarService service;
 
-    private final PersonService personService;
+    private final BulkImportService bulkImportService;
 
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Filtered requests are always paged, so a broad filter cannot pull the whole table.
+     */
     @GetMapping
-    public ResponseEntity<List<Car>> findAllCars() {
-        return new ResponseEntity<>(service.getCars(), OK);
+    public ResponseEntity<List<Car>> findAllCars(@RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(required = false) String manufacturer,
+                                                 @RequestParam(required = false) String model,
+                                                 @RequestParam(required = false) Long owner,
+                                                 @RequestParam(required = false) String numberPrefix) {
+        CarFilter filter = new CarFilter(manufacturer, model, owner, numberPrefix);
+        if (limit == null && after == null && filter.isEmpty()) {
+            return new ResponseEntity<>(service.getCars(), OK);
+        }
+        int pageSize = Pages.limit(limit);
+        List<Car> cars = filter.isEmpty() ? service.getCars(after, pageSize) : service.search(filter, after, pageSize);
+        return new ResponseEntity<>(cars, Pages.nextLink(cars, pageSize, Car::getVin), OK);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCars() {
+        return Ndjson.response(objectMapper, service::streamCars);
     }
 
     @PostMapping
@@ -35,36 +68,67 @@ public class CarController {
         return new ResponseEntity<>(service.add(car), CREATED);
     }
 
+    @PostMapping(value = "bulk", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResult> addCarsBulk(InputStream body) throws IOException {
+        try (MappingIterator<Car> rows = objectMapper.readerFor(Car.class).readValues(body)) {
+            return new ResponseEntity<>(bulkImportService.importCars(rows), OK);
+        }
+    }
+
+    @PatchMapping(consumes = APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResult> updateCars(@Valid @RequestBody CarBatchUpdate update) {
+        return new ResponseEntity<>(service.updateAll(update), OK);
+    }
+
+    @DeleteMapping(params = "vin")
+    public ResponseEntity<BatchResult> deleteCars(@RequestParam List<String> vin) {
+        return new ResponseEntity<>(service.removeAll(vin), OK);
+    }
+
+    @DeleteMapping(params = "owner")
+    public ResponseEntity<BatchResult> deleteCarsOfOwner(@RequestParam Long owner) {
+        return new ResponseEntity<>(service.removeByOwner(owner), OK);
+    }
+
+    /**
+     * Tagged with the car's version; a matching {@code If-None-Match} is answered with 304 and no body.
+     */
     @GetMapping("{vin}")
     public ResponseEntity<Car> findCar(@PathVariable String vin) {
-        return new ResponseEntity<>(service.findCar(vin), OK);
+        Car car = service.findCar(vin);
+        return ResponseEntity.ok().eTag(ETags.of(car)).body(car);
     }
 
     @PutMapping("{vin}")
-    public ResponseEntity<Car> updateCar(@PathVariable String vin, @Valid @RequestBody Car car) {
-        return new ResponseEntity<>(service.updateCar(vin, car), OK);
+    public ResponseEntity<Car> updateCar(@PathVariable String vin, @Valid @RequestBody Car car,
+                                         @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Car updated = service.updateCar(vin, car, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(updated);
+    }
+
+    @PutMapping(value = "{vin}", params = "upsert=true")
+    public ResponseEntity<Car> upsertCar(@PathVariable String vin, @Valid @RequestBody Car car,
+                                         @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Car stored = service.upsert(vin, car, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(stored)).body(stored);
+    }
+
+    @PatchMapping(value = "{vin}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<Car> patchCar(@PathVariable String vin, @RequestBody JsonNode patch,
+                                        @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Car patched = service.patch(vin, patch, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(patched)).body(patched);
     }
 
     @DeleteMapping("{vin}")
-    public ResponseEntity<Void> deleteCar(@PathVariable String vin) {
-        service.remove(vin);
+    public ResponseEntity<Void> deleteCar(@PathVariable String vin,
+                                          @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        service.remove(vin, ifMatch);
         return new ResponseEntity<>(OK);
     }
 
     @GetMapping("{vin}/owner")
     public Person getCarsOwner(@PathVariable String vin) {
-        Car car = service.findCar(vin);
-        return personService.findById(car.getOwner());
-    }
-
-    @ResponseStatus(BAD_REQUEST)
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public Set<String> handleValidationException(MethodArgumentNotValidException ex) {
-        Set<String> errors = new HashSet<>();
-        ex.getBindingResult().getAllErrors().forEach(error -> {
-            String errorMessage = error.getDefaultMessage();
-            errors.add(errorMessage);
-        });
-        return errors;
+        return service.findOwner(vin);
     }
 }
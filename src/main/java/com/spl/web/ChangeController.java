@@ -0,0 +1,38 @@
+package com.spl.web;
+
+import com.spl.entity.ChangeEvent;
+import com.spl.repository.ChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Feed of published car and person changes, so consumers read what changed instead of whole tables.
+ * A page holds the changes after position {@code since} in feed order; the position of its last change is
+ * the {@code since} of the next page, which the {@code Link} header carries when more may follow.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("changes")
+public class ChangeController {
+
+    private final ChangeEventRepository repository;
+
+    @GetMapping
+    public ResponseEntity<List<ChangeEvent>> findChanges(@RequestParam(defaultValue = "0") long since,
+                                                         @RequestParam(required = false) Integer limit) {
+        int pageSize = Pages.limit(limit);
+        List<ChangeEvent> changes =
+                repository.findByPositionGreaterThanOrderByPosition(since, PageRequest.of(0, pageSize));
+        return new ResponseEntity<>(changes,
+                Pages.nextLink(changes, pageSize, "since", ChangeEvent::getPosition), OK);
+    }
+}
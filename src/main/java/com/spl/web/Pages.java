@@ -0,0 +1,66 @@
+package com.spl.web;
+
+import com.spl.service.ExpectedStatusException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Keyset pagination helpers shared by the listing endpoints.
+ * A page is a plain JSON array; the cursor of the next page travels in a {@code Link: <...>; rel="next"} header.
+ */
+public final class Pages {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private Pages() {
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ExpectedStatusException(BAD_REQUEST, format("Limit should be between 1 and %d", MAX_LIMIT));
+        }
+        return limit;
+    }
+
+    static <T> HttpHeaders nextLink(List<T> page, int limit, Function<T, Object> cursor) {
+        return nextLink(page, limit, "after", cursor);
+    }
+
+    /**
+     * @param param query parameter carrying the cursor
+     */
+    static <T> HttpHeaders nextLink(List<T> page, int limit, String param, Function<T, Object> cursor) {
+        return nextLink(ServletUriComponentsBuilder.fromCurrentRequest(), page, limit, param, cursor);
+    }
+
+    /**
+     * @param request builder of the URI of the current request
+     */
+    public static <T> HttpHeaders nextLink(UriComponentsBuilder request, List<T> page, int limit, Function<T, Object> cursor) {
+        return nextLink(request, page, limit, "after", cursor);
+    }
+
+    private static <T> HttpHeaders nextLink(UriComponentsBuilder request, List<T> page, int limit, String param,
+                                            Function<T, Object> cursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.size() == limit) {
+            String next = request
+                    .replaceQueryParam("limit", limit)
+                    .replaceQueryParam(param, cursor.apply(page.get(page.size() - 1)))
+                    .build()
+                    .toUriString();
+            headers.add(HttpHeaders.LINK, format("<%s>; rel=\"next\"", next));
+        }
+        return headers;
+    }
+}
@@ -1,19 +1,30 @@
 package com.spl.web;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spl.entity.Car;
 import com.spl.entity.Person;
+import com.spl.service.BulkImportService;
+import com.spl.service.BulkResult;
+import com.spl.service.ETags;
+import com.spl.service.MergePatch;
 import com.spl.service.PersonService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @RequiredArgsConstructor
 @RestController
@@ -21,14 +32,33 @@ import static org.springframework.http.HttpStatus.*;
 public class PersonController {
     private final PersonService service;
 
+    private final BulkImportService bulkImportService;
+
+    private final ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<Person>> findAllPersons() {
-        return new ResponseEntity<>(service.findAll(), OK);
+    public ResponseEntity<List<Person>> findAllPersons(@RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) Long after) {
+        if (limit == null && after == null) {
+            return new ResponseEntity<>(service.findAll(), OK);
+        }
+        int pageSize = Pages.limit(limit);
+        List<Person> persons = service.findAll(after, pageSize);
+        return new ResponseEntity<>(persons, Pages.nextLink(persons, pageSize, Person::getId), OK);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPersons() {
+        return Ndjson.response(objectMapper, service::streamAll);
     }
 
+    /**
+     * Tagged with the versions of the person and its cars; a matching {@code If-None-Match} gets 304.
+     */
     @GetMapping("{id}")
     public ResponseEntity<Person> findPersonById(@PathVariable Long id) {
-        return new ResponseEntity<>(service.findById(id), OK);
+        Person person = service.findById(id);
+        return ResponseEntity.ok().eTag(ETags.of(person)).body(person);
     }
 
     @PostMapping
@@ -36,14 +66,31 @@ public class PersonController {
         return new ResponseEntity<>(service.add(person), CREATED);
     }
 
+    @PostMapping(value = "bulk", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResult> addPersonsBulk(InputStream body) throws IOException {
+        try (MappingIterator<Person> rows = objectMapper.readerFor(Person.class).readValues(body)) {
+            return new ResponseEntity<>(bulkImportService.importPersons(rows), OK);
+        }
+    }
+
     @PutMapping("{id}")
-    public ResponseEntity<Person> updatePerson(@PathVariable Long id, @Valid @RequestBody Person person) {
-        return new ResponseEntity<>(service.update(id, person), OK);
+    public ResponseEntity<Person> updatePerson(@PathVariable Long id, @Valid @RequestBody Person person,
+                                               @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Person updated = service.update(id, person, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(updated);
+    }
+
+    @PatchMapping(value = "{id}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<Person> patchPerson(@PathVariable Long id, @RequestBody JsonNode patch,
+                                              @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Person patched = service.patch(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(patched)).body(patched);
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<Void> deletePerson(@PathVariable Long id) {
-        service.remove(id);
+    public ResponseEntity<Void> deletePerson(@PathVariable Long id,
+                                             @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        service.remove(id, ifMatch);
         return new ResponseEntity<>(OK);
     }
 
@@ -52,15 +99,4 @@ public class PersonController {
         Person person = service.findById(id);
         return person.getCars();
     }
-
-    @ResponseStatus(BAD_REQUEST)
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public Set<String> handleValidationException(MethodArgumentNotValidException ex) {
-        Set<String> errors = new HashSet<>();
-        ex.getBindingResult().getAllErrors().forEach(error -> {
-            String errorMessage = error.getDefaultMessage();
-            errors.add(errorMessage);
-        });
-        return errors;
-    }
 }
@@ -0,0 +1,31 @@
+package com.spl.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spl.sync.SyncRecord;
+import com.spl.sync.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Incremental sync for offline clients: the cars and persons changed or deleted after {@code since}, one NDJSON line
+ * each. A client passes the highest {@code seq} it has applied; {@code since=0} returns everything.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("sync")
+public class SyncController {
+
+    private final SyncService service;
+
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> sync(@RequestParam(defaultValue = "0") long since) {
+        return Ndjson.<SyncRecord>response(objectMapper, action -> service.changesSince(since, action));
+    }
+}
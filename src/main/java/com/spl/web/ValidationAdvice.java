@@ -0,0 +1,38 @@
+package com.spl.web;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
+/**
+ * Answers an invalid request body of any controller with a {@link ValidationProblem}, as well as a merge patch
+ * that leaves a field invalid ({@link com.spl.service.MergePatch}).
+ */
+@RestControllerAdvice
+public class ValidationAdvice {
+
+    /**
+     * Resolves the constraint metadata of the request bodies at startup rather than on the first request
+     * that carries each of them.
+     */
+    public ValidationAdvice(Validator validator) {
+        validator.getConstraintsForClass(Car.class);
+        validator.getConstraintsForClass(Person.class);
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ValidationProblem> handleValidationException(MethodArgumentNotValidException ex) {
+        return ValidationProblem.response(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ValidationProblem> handleConstraintViolation(ConstraintViolationException ex) {
+        return ValidationProblem.response(ex.getConstraintViolations());
+    }
+}
@@ -0,0 +1,54 @@
+package com.spl.web;
+
+import lombok.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import javax.validation.ConstraintViolation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
+
+/**
+ * Problem details (RFC 7807) body of a rejected request body: one entry per violated constraint, with the
+ * JSON field it applies to, or no field when the constraint is on the whole object.
+ */
+@Value
+public class ValidationProblem {
+    String type = "about:blank";
+    String title = BAD_REQUEST.getReasonPhrase();
+    int status = BAD_REQUEST.value();
+    List<Violation> errors;
+
+    public static ResponseEntity<ValidationProblem> response(BindingResult result) {
+        List<Violation> errors = new ArrayList<>(result.getErrorCount());
+        for (ObjectError error : result.getAllErrors()) {
+            String field = error instanceof FieldError ? ((FieldError) error).getField() : null;
+            errors.add(new Violation(field, error.getDefaultMessage()));
+        }
+        return response(errors);
+    }
+
+    public static ResponseEntity<ValidationProblem> response(Set<ConstraintViolation<?>> violations) {
+        List<Violation> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<?> violation : violations) {
+            errors.add(new Violation(violation.getPropertyPath().toString(), violation.getMessage()));
+        }
+        return response(errors);
+    }
+
+    private static ResponseEntity<ValidationProblem> response(List<Violation> errors) {
+        return ResponseEntity.status(BAD_REQUEST).contentType(APPLICATION_PROBLEM_JSON).body(new ValidationProblem(errors));
+    }
+
+    @Value
+    public static class Violation {
+        String field;
+        String message;
+    }
+}
@@ -0,0 +1,71 @@
+package com.spl.web;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves requests on virtual threads when {@code garage.threads.virtual=true}, so a burst of slow queries
+ * no longer occupies the whole Tomcat pool and cheap lookups do not queue behind them. Streamed (NDJSON)
+ * responses are written on virtual threads as well.
+ * <p>
+ * An opt-in for Java 21 runtimes: the project builds for Java 17, where the switch stays off and enabling it fails
+ * the startup. {@code VirtualThreadConfigTest} only runs when the build runs on Java 21. Database concurrency stays bounded by the Hikari pool
+ * ({@code spring.datasource.hikari.maximum-pool-size}): requests beyond it wait for a connection
+ * instead of reaching the database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "garage.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig implements DisposableBean {
+    /**
+     * Deliberately not a bean: an {@code Executor} bean would make Spring Boot back off from its own
+     * {@code applicationTaskExecutor}, and with it the {@code spring.task.execution.*} settings.
+     */
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupport() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+            }
+        };
+    }
+
+    /**
+     * Tomcat leaves an executor it was handed running, so it is shut down with the context.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    "garage.threads.virtual=true needs Java 21 or newer, running on " + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+}
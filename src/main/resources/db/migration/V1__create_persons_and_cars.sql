@@ -0,0 +1,27 @@
+-- the schema Hibernate derived from the entities while it ran with ddl-auto=update; shared by both stacks
+create sequence persons_generator start with 1 increment by 50;
+
+create table persons (
+    id bigint not null,
+    first_name varchar(20),
+    last_name varchar(20),
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table cars (
+    vin varchar(17) not null,
+    manufacturer varchar(20) not null,
+    model varchar(20) not null,
+    number varchar(10) not null,
+    person_id bigint not null check (person_id >= 1),
+    version bigint default 0 not null,
+    primary key (vin)
+);
+
+-- before the foreign key, which then reuses this index instead of creating its own
+create index cars_person_id_idx on cars (person_id);
+create index cars_manufacturer_model_idx on cars (manufacturer, model);
+
+alter table cars add constraint cars_number_UQ unique (number);
+alter table cars add constraint cars_person_fk foreign key (person_id) references persons;
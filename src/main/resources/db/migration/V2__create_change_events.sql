@@ -0,0 +1,16 @@
+-- transactional outbox: one row per car or person mutation, written in the transaction of the change;
+-- position is assigned when the dispatcher publishes the row and orders the GET /api/changes feed
+create sequence change_events_seq start with 1 increment by 50;
+
+create table change_events (
+    id bigint not null,
+    position bigint,
+    entity varchar(10) not null,
+    entity_id varchar(20) not null,
+    type varchar(10) not null,
+    created_at timestamp not null,
+    primary key (id)
+);
+
+-- unique, so two dispatchers racing on the same database cannot hand out a position twice
+create unique index change_events_position_uq on change_events (position);
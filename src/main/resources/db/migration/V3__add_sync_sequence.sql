@@ -0,0 +1,23 @@
+-- modification sequence for GET /api/sync: every write of a car or person row takes the next value,
+-- every deletion leaves a tombstone with its own value; see com.spl.sync.SyncSequence
+create sequence sync_seq start with 1 increment by 1;
+
+alter table cars add column sync_seq bigint default 0 not null;
+alter table persons add column sync_seq bigint default 0 not null;
+
+-- existing rows are numbered once, so a first sync from 0 returns them
+update persons set sync_seq = next value for sync_seq;
+update cars set sync_seq = next value for sync_seq;
+
+-- the application takes values in blocks; SyncSequence.BLOCK_SIZE must match
+alter sequence sync_seq increment by 100;
+
+create index cars_sync_seq_idx on cars (sync_seq);
+create index persons_sync_seq_idx on persons (sync_seq);
+
+create table sync_tombstones (
+    seq bigint not null,
+    entity varchar(10) not null,
+    entity_id varchar(20) not null,
+    primary key (seq)
+);
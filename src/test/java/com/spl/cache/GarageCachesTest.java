@@ -0,0 +1,166 @@
+package com.spl.cache;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.PersonRepository;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class GarageCachesTest {
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Person owner;
+
+    Car car;
+
+    @BeforeEach
+    void setUp() {
+        owner = personService.add(new Person(null, "Alex", "Cole"));
+        car = carService.add(car("KL1NF193E6K323675", "AA1111AA"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void findCarIsServedFromSecondLevelCache() {
+        carService.findCar(car.getVin());
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        assertThat(carService.findCar(car.getVin())).isEqualTo(car);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void lookupsReturnNewInstances() {
+        Car found = carService.findCar(car.getVin());
+        found.setNumber("BB2222BB");
+        personService.findById(owner.getId()).getCars().clear();
+
+        assertThat(carService.findCar(car.getVin()).getNumber()).isEqualTo("AA1111AA");
+        assertThat(personService.findById(owner.getId()).getCars()).containsExactly(car);
+    }
+
+    @Test
+    void updateCarRefreshesCachedCarAndOwner() {
+        personService.findById(owner.getId());
+        carService.findCar(car.getVin());
+
+        Car changed = car("KL1NF193E6K323675", "BB2222BB");
+        carService.updateCar(car.getVin(), changed, null);
+
+        assertThat(carService.findCar(car.getVin()).getNumber()).isEqualTo("BB2222BB");
+        assertThat(personService.findById(owner.getId()).getCars())
+                .extracting(Car::getNumber).containsExactly("BB2222BB");
+    }
+
+    @Test
+    void updateCarToAnotherOwnerRefreshesBothOwners() {
+        Person buyer = personService.add(new Person(null, "Ann", "Lee"));
+        personService.findById(owner.getId());
+        personService.findById(buyer.getId());
+
+        Car sold = car("KL1NF193E6K323675", "AA1111AA");
+        sold.setOwner(buyer.getId());
+        carService.updateCar(car.getVin(), sold, null);
+
+        assertThat(carService.findCar(car.getVin()).getOwner()).isEqualTo(buyer.getId());
+        assertThat(personService.findById(owner.getId()).getCars()).isEmpty();
+        assertThat(personService.findById(buyer.getId()).getCars())
+                .extracting(Car::getVin).containsExactly(car.getVin());
+    }
+
+    @Test
+    void addAndRemoveCarEvictOwner() {
+        assertThat(personService.findById(owner.getId()).getCars()).hasSize(1);
+
+        carService.add(car("WF0AXXWPDA3U77669", "AA2222AA"));
+        assertThat(personService.findById(owner.getId()).getCars()).hasSize(2);
+
+        carService.remove("WF0AXXWPDA3U77669", null);
+        assertThat(personService.findById(owner.getId()).getCars()).hasSize(1);
+    }
+
+    @Test
+    void removePersonEvictsOwnedCars() {
+        carService.findCar(car.getVin());
+        personService.findById(owner.getId());
+
+        personService.remove(owner.getId(), null);
+
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(cache.containsEntity(Car.class, car.getVin())).isFalse();
+        assertThat(cache.containsEntity(Person.class, owner.getId())).isFalse();
+        assertThat(cache.containsCollection(Person.CARS_ROLE, owner.getId())).isFalse();
+    }
+
+    @Test
+    void findPersonIsServedFromSecondLevelCache() {
+        personService.findById(owner.getId());
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        assertThat(personService.findById(owner.getId()).getCars()).containsExactly(car);
+        assertThat(carService.findCar(car.getVin())).isEqualTo(car);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void addedCarShowsInOwnerFromSecondLevelCache() {
+        personService.findById(owner.getId());
+
+        carService.add(car("WF0AXXWPDA3U77669", "AA2222AA"));
+
+        assertThat(personService.findById(owner.getId()).getCars()).hasSize(2);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Car car(String vin, String number) {
+        return Car.builder()
+                .vin(vin)
+                .number(number)
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(owner.getId())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.spl.metrics;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.PersonRepository;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureMetrics
+class MetricsConfigTest {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @BeforeEach
+    void setUp() {
+        Long owner = personService.add(new Person(null, "Alex", "Cole")).getId();
+        carService.add(Car.builder()
+                .vin("KL1NF193E6K323675")
+                .number("AA1111AA")
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void findCarRequestIsMeasuredAtEveryLayer() {
+        double statements = sqlStatements("/cars/{vin}");
+        ResponseEntity<String> response = api().getForEntity("/api/cars/WF0AXXWPDA3U77669", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(NOT_FOUND);
+
+        assertThat(registry.get(ServiceMetricsInterceptor.METRIC)
+                .tags("class", "CarServiceImp", "method", "findCar", "exception", "ExpectedStatusException")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("spring.data.repository.invocations")
+                .tags("repository", "CarRepository", "method", "findById")
+                .timer().count()).isPositive();
+        assertThat(sqlStatements("/cars/{vin}") - statements).isEqualTo(1);
+    }
+
+    @Test
+    void responseBodiesAreTimedByType() {
+        assertThat(api().getForEntity("/api/cars?owner=0", String.class).getStatusCode()).isEqualTo(OK);
+        assertThat(registry.get(TimedJackson2HttpMessageConverter.WRITE).tag("type", "List<Car>").timer().count())
+                .isPositive();
+    }
+
+    @Test
+    void prometheusEndpointPublishesPoolAndHibernateMeters() {
+        api().getForEntity("/api/cars/KL1NF193E6K323675", String.class);
+
+        String scrape = api().getForObject("/api/actuator/prometheus", String.class);
+        assertThat(scrape)
+                .contains("garage_service_seconds_count{class=\"CarServiceImp\",exception=\"none\",method=\"findCar\"")
+                .contains("garage_http_sql_statements_count")
+                .contains("hikaricp_connections_acquire_seconds")
+                .contains("hibernate_statements_total");
+        // the test's own RestTemplate is instrumented as http_client_requests with literal URIs
+        assertThat(scrape.lines().filter(line -> !line.startsWith("http_client_requests")))
+                .noneMatch(line -> line.contains("KL1NF193E6K323675"));
+    }
+
+    private double sqlStatements(String uri) {
+        DistributionSummary summary = registry.find(SqlStatementsInterceptor.METRIC).tags("method", "GET", "uri", uri)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private TestRestTemplate api() {
+        return restTemplate.withBasicAuth("user1", "password1");
+    }
+}
@@ -0,0 +1,123 @@
+package com.spl.outbox;
+
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.ChangeEventRepository;
+import com.spl.repository.PersonRepository;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
+import static com.spl.entity.ChangeEvent.EntityType.CAR;
+import static com.spl.entity.ChangeEvent.EntityType.PERSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "garage.outbox.batch-size=2")
+@RecordApplicationEvents
+class ChangeDispatcherTest {
+
+    @Autowired
+    ChangeDispatcher dispatcher;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ApplicationEvents events;
+
+    Person owner;
+
+    @BeforeEach
+    void setUp() {
+        changeEventRepository.deleteAllInBatch();
+        owner = personService.add(new Person(null, "Alex", "Cole"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+        changeEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void mutationsArePublishedInBatchesInTheOrderTheyWereMade() {
+        Car car = carService.add(car("KL1NF193E6K323675"));
+        car.setNumber("AA2222AA");
+        carService.updateCar(car.getVin(), car, null);
+        carService.remove(car.getVin(), null);
+
+        dispatcher.dispatchPending();
+
+        List<ChangeEvent> feed = changeEventRepository.findByPositionGreaterThanOrderByPosition(0L, PageRequest.of(0, 10));
+        assertThat(feed)
+                .extracting(ChangeEvent::getPosition, ChangeEvent::getEntity, ChangeEvent::getEntityId, ChangeEvent::getType)
+                .containsExactly(
+                        tuple(1L, PERSON, owner.getId().toString(), CREATED),
+                        tuple(2L, CAR, "KL1NF193E6K323675", CREATED),
+                        tuple(3L, CAR, "KL1NF193E6K323675", UPDATED),
+                        tuple(4L, CAR, "KL1NF193E6K323675", DELETED));
+        assertThat(events.stream(ChangeBatch.class).map(batch -> batch.getEvents().size()).collect(Collectors.toList()))
+                .containsExactly(2, 2);
+    }
+
+    @Test
+    void publishedEventsAreNotPublishedAgain() {
+        dispatcher.dispatch();
+        carService.add(car("KL1NF193E6K323675"));
+
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(changeEventRepository.findLastPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectedMutationLeavesNoEvent() {
+        carService.add(car("KL1NF193E6K323675"));
+        dispatcher.dispatch();
+
+        assertThrows(ResponseStatusException.class, () -> carService.add(car("KL1NF193E6K323675")));
+
+        assertThat(dispatcher.dispatch()).isZero();
+    }
+
+    private Car car(String vin) {
+        return Car.builder()
+                .vin(vin)
+                .number("AA1111AA")
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(owner.getId())
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.spl.reactive;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+
+@SpringBootTest(classes = ReactiveSplApplication.class, webEnvironment = RANDOM_PORT)
+@ActiveProfiles(ReactiveSplApplication.PROFILE)
+class ReactiveApiTest {
+
+    @Autowired
+    WebTestClient anonymous;
+
+    WebTestClient client;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    Long owner;
+
+    @BeforeEach
+    void setUp() {
+        deleteAll();
+        client = anonymous.mutate().defaultHeaders(headers -> headers.setBasicAuth("user1", "password1")).build();
+        owner = client.post().uri("/persons").bodyValue(new Person(null, "Alex", "Cole"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Person.class).returnResult().getResponseBody().getId();
+    }
+
+    /**
+     * The in-memory database outlives this context and is shared with the servlet-stack tests.
+     */
+    @AfterEach
+    void deleteAll() {
+        databaseClient.sql("delete from cars").then().block();
+        databaseClient.sql("delete from persons").then().block();
+        databaseClient.sql("delete from change_events").then().block();
+        databaseClient.sql("delete from sync_tombstones").then().block();
+    }
+
+    @Test
+    void addedCarIsListedWithItsOwner() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA1111AA", owner))
+                .exchange()
+                .expectStatus().isCreated();
+
+        client.get().uri("/cars/KL1NF193E6K323675").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.number").isEqualTo("AA1111AA");
+        client.get().uri("/cars/KL1NF193E6K323675/owner").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(owner.intValue())
+                .jsonPath("$.cars[0].vin").isEqualTo("KL1NF193E6K323675");
+        client.get().uri("/persons").accept(APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Person.class).hasSize(1);
+    }
+
+    @Test
+    void pageLinksToTheNextPage() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA1111AA", owner)).exchange();
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323676", "AA1111AB", owner)).exchange();
+
+        client.get().uri("/cars?limit=1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("Link", ".*after=KL1NF193E6K323675.*rel=\"next\"")
+                .expectBodyList(Car.class).hasSize(1);
+    }
+
+    @Test
+    void searchFiltersCars() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA1111AA", owner)).exchange();
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323676", "BB_111AB", owner)).exchange();
+
+        client.get().uri("/cars?manufacturer=Chevrolet&owner={owner}&numberPrefix=BB_", owner).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].vin").isEqualTo("KL1NF193E6K323676");
+        client.get().uri("/cars?numberPrefix=%25").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(0);
+    }
+
+    @Test
+    void invalidCarIsRejectedWithMessages() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6", "AA1111AA", owner))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0].field").isEqualTo("vin")
+                .jsonPath("$.errors[0].message").isEqualTo("VIN should be 17 characters length");
+    }
+
+    @Test
+    void duplicatesAndUnknownOwnersAreRejected() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA1111AA", owner)).exchange()
+                .expectStatus().isCreated();
+
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA2222AA", owner)).exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.message").isEqualTo("This vin is already exists");
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323676", "AA1111AA", owner)).exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.message").isEqualTo("This number is already exists");
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323677", "AA3333AA", owner + 1000)).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("No person with id " + (owner + 1000) + " in DB");
+    }
+
+    @Test
+    void deletingPersonDeletesCars() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA1111AA", owner)).exchange();
+
+        client.delete().uri("/persons/" + owner).exchange().expectStatus().isOk();
+
+        client.get().uri("/cars/KL1NF193E6K323675").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("No car with vin KL1NF193E6K323675 in DB");
+    }
+
+    @Test
+    void writesAreStampedAndRecorded() {
+        client.post().uri("/cars").bodyValue(car("KL1NF193E6K323675", "AA1111AA", owner)).exchange()
+                .expectStatus().isCreated();
+        client.put().uri("/cars/KL1NF193E6K323675").bodyValue(car("KL1NF193E6K323675", "AA2222AA", owner)).exchange()
+                .expectStatus().isOk();
+
+        assertThat(databaseClient.sql("select sync_seq from cars").map(row -> row.get(0, Long.class)).one().block())
+                .isPositive();
+        assertThat(databaseClient.sql("select sync_seq from persons").map(row -> row.get(0, Long.class)).one().block())
+                .isPositive();
+
+        client.delete().uri("/persons/" + owner).exchange().expectStatus().isOk();
+
+        assertThat(databaseClient.sql("select entity, entity_id, type from change_events order by id")
+                .map(row -> row.get("entity", String.class) + " " + row.get("entity_id", String.class)
+                        + " " + row.get("type", String.class))
+                .all().collectList().block())
+                .containsExactly(
+                        "PERSON " + owner + " CREATED",
+                        "CAR KL1NF193E6K323675 CREATED",
+                        "CAR KL1NF193E6K323675 UPDATED",
+                        "CAR KL1NF193E6K323675 DELETED",
+                        "PERSON " + owner + " DELETED");
+        assertThat(databaseClient.sql("select entity_id from sync_tombstones order by seq")
+                .map(row -> row.get(0, String.class))
+                .all().collectList().block())
+                .containsExactly("KL1NF193E6K323675", String.valueOf(owner));
+    }
+
+    @Test
+    void bulkImportReportsRejectedRows() {
+        String body = "{\"firstName\":\"Ann\",\"lastName\":\"Lee\"}\n{\"firstName\":\"A\",\"lastName\":\"Lee\"}\n";
+
+        client.post().uri("/persons/bulk").contentType(APPLICATION_NDJSON).bodyValue(body).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accepted").isEqualTo(1)
+                .jsonPath("$.rejected[0].index").isEqualTo(1);
+    }
+
+    @Test
+    void requestsNeedCredentials() {
+        anonymous.get().uri("/cars").exchange().expectStatus().isUnauthorized();
+    }
+
+    private static Car car(String vin, String number, Long owner) {
+        return Car.builder().vin(vin).number(number).manufacturer("Chevrolet").model("Lacetti").owner(owner).build();
+    }
+}
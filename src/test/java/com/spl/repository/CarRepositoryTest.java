@@ -0,0 +1,139 @@
+package com.spl.repository;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.sync.SyncSequence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SyncSequence.class)
+class CarRepositoryTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CarRepository repository;
+
+    Statistics statistics;
+
+    Person owner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        owner = entityManager.persist(new Person(null, "Alex", "Cole"));
+        entityManager.persist(car("KL1NF193E6K323675", "AA1111AA"));
+        entityManager.persist(car("WF0AXXWPDA3U77669", "AA2222AA"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findOwnerByVinLoadsOwnerWithCarsInOneStatement() {
+        Person found = repository.findOwnerByVin("KL1NF193E6K323675").orElseThrow();
+        assertThat(found.getId()).isEqualTo(owner.getId());
+        assertThat(found.getCars()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findOwnerByVinReturnsEmptyForUnknownVin() {
+        assertThat(repository.findOwnerByVin("XXXXXXXXXXXXXXXXX")).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    void insertDoesNotSelectBeforeInsert() {
+        repository.insert(car("KL1NF193E6K300000", "AA3333AA"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void insertFailsOnDuplicateVin() {
+        assertThatThrownBy(() -> repository.insert(car("KL1NF193E6K323675", "AA3333AA")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void insertFailsOnDuplicateNumber() {
+        assertThatThrownBy(() -> repository.insert(car("KL1NF193E6K300000", "AA1111AA")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void searchFiltersInTheDatabase() {
+        entityManager.persist(car("ZFA22300005556777", "BB1111BB"));
+        Car other = car("VF1BB05CF26010203", "AA_111AA");
+        other.setModel("Megane");
+        entityManager.persist(other);
+
+        assertThat(search(new CarFilter("Chevrolet", "Lacetti", owner.getId(), null), null, 10))
+                .containsExactly("KL1NF193E6K323675", "WF0AXXWPDA3U77669", "ZFA22300005556777");
+        assertThat(search(new CarFilter(null, "Megane", null, null), null, 10)).containsExactly("VF1BB05CF26010203");
+        assertThat(search(new CarFilter(null, null, null, "AA"), null, 10))
+                .containsExactly("KL1NF193E6K323675", "VF1BB05CF26010203", "WF0AXXWPDA3U77669");
+        assertThat(search(new CarFilter(null, null, owner.getId() + 1, null), null, 10)).isEmpty();
+    }
+
+    @Test
+    void searchEscapesWildcardsInNumberPrefix() {
+        entityManager.persist(car("VF1BB05CF26010203", "AA_111AA"));
+        assertThat(search(new CarFilter(null, null, null, "AA_"), null, 10)).containsExactly("VF1BB05CF26010203");
+        assertThat(search(new CarFilter(null, null, null, "%"), null, 10)).isEmpty();
+    }
+
+    @Test
+    void searchPagesByVin() {
+        CarFilter filter = new CarFilter("Chevrolet", null, null, null);
+        assertThat(search(filter, null, 1)).containsExactly("KL1NF193E6K323675");
+        assertThat(search(filter, "KL1NF193E6K323675", 1)).containsExactly("WF0AXXWPDA3U77669");
+        assertThat(search(filter, "WF0AXXWPDA3U77669", 1)).isEmpty();
+    }
+
+    @Test
+    void searchPredicatesUseIndexes() {
+        assertThat(explain("select * from cars where person_id = 1")).contains("CARS_PERSON_ID_IDX");
+        assertThat(explain("select * from cars where manufacturer = 'Chevrolet' and model = 'Lacetti'"))
+                .contains("CARS_MANUFACTURER_MODEL_IDX");
+        assertThat(explain("select * from cars where number like 'AA%'")).contains("CARS_NUMBER_UQ");
+    }
+
+    private List<String> search(CarFilter filter, String after, int limit) {
+        return repository.search(CarSpecifications.matching(filter), after, limit).stream()
+                .map(Car::getVin)
+                .collect(Collectors.toList());
+    }
+
+    private String explain(String sql) {
+        return entityManager.getEntityManager().createNativeQuery("explain " + sql).getSingleResult().toString()
+                .toUpperCase();
+    }
+
+    private Car car(String vin, String number) {
+        return Car.builder()
+                .vin(vin)
+                .number(number)
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(owner.getId())
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.spl.repository;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.sync.SyncSequence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SyncSequence.class)
+class PersonRepositoryTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    PersonRepository repository;
+
+    Statistics statistics;
+
+    int carSequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllWithCarsStatementCountDoesNotGrowWithPersons() {
+        addPersonsWithCars(1, 3);
+        long oneOwner = countStatements(() -> touchCars(repository.findAllWithCars()));
+
+        addPersonsWithCars(20, 3);
+        long manyOwners = countStatements(() -> touchCars(repository.findAllWithCars()));
+
+        assertThat(oneOwner).isEqualTo(1);
+        assertThat(manyOwners).isEqualTo(oneOwner);
+    }
+
+    @Test
+    void findAllWithCarsReturnsEveryPersonOnce() {
+        addPersonsWithCars(5, 3);
+        List<Person> persons = repository.findAllWithCars();
+        assertThat(persons).hasSize(5);
+        assertThat(persons).allSatisfy(person -> assertThat(person.getCars()).hasSize(3));
+    }
+
+    @Test
+    void findWithCarsByIdLoadsPersonAndCarsInOneStatement() {
+        Long id = addPersonsWithCars(1, 3).get(0).getId();
+        long statements = countStatements(() -> assertThat(
+                repository.findWithCarsById(id).orElseThrow().getCars()).hasSize(3));
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void keysetPageWithCarsUsesTwoStatements() {
+        List<Person> persons = addPersonsWithCars(20, 2);
+        long statements = countStatements(() -> {
+            List<Long> ids = repository.findIdsAfter(persons.get(4).getId(), PageRequest.of(0, 10));
+            List<Person> page = repository.findAllWithCarsByIdIn(ids);
+            assertThat(page).extracting(Person::getId).isEqualTo(ids);
+            touchCars(page);
+        });
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void streamAllWithCarsUsesOneStatement() {
+        addPersonsWithCars(10, 2);
+        long statements = countStatements(() -> {
+            try (Stream<Person> persons = repository.streamAllWithCars()) {
+                assertThat(persons.peek(person -> assertThat(person.getCars()).hasSize(2)).count())
+                        .isEqualTo(10);
+            }
+        });
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void personIdsComeFromPooledSequenceBlocks() {
+        long first = nextSequenceValue();
+        long increment = nextSequenceValue() - first;
+        long before = nextSequenceValue();
+        for (int i = 0; i < 120; i++) {
+            entityManager.persist(new Person(null, "Alex", "Cole"));
+        }
+        entityManager.flush();
+        long generatorCalls = (nextSequenceValue() - before) / increment - 1;
+
+        List<Long> ids = repository.findAll().stream().map(Person::getId).collect(Collectors.toList());
+        assertThat(ids).hasSize(120).doesNotHaveDuplicates();
+        assertThat(increment).isEqualTo(50);
+        assertThat(generatorCalls).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void personStaysInSetAcrossPersistAndUpdates() {
+        Person person = new Person(null, "Alex", "Cole");
+        Set<Person> persons = new HashSet<>(Set.of(person));
+
+        entityManager.persistAndFlush(person);
+        person.setFirstName("Alexandr");
+        person.addCar(Car.builder().vin("KL1NF193E6K000001").build());
+
+        assertThat(persons).contains(person);
+        assertThat(person.toString()).doesNotContain("KL1NF193E6K000001");
+    }
+
+    private List<Person> addPersonsWithCars(int persons, int carsPerPerson) {
+        List<Person> added = new ArrayList<>();
+        for (int i = 0; i < persons; i++) {
+            Person person = entityManager.persist(new Person(null, "Alex", "Cole"));
+            for (int j = 0; j < carsPerPerson; j++) {
+                carSequence++;
+                entityManager.persist(Car.builder()
+                        .vin(String.format("KL1NF193E6K%06d", carSequence))
+                        .number(String.format("AA%06d", carSequence))
+                        .manufacturer("Chevrolet")
+                        .model("Lacetti")
+                        .owner(person.getId())
+                        .build());
+            }
+            added.add(person);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return added;
+    }
+
+    private long nextSequenceValue() {
+        return ((Number) entityManager.getEntityManager()
+                .createNativeQuery("select next value for persons_generator")
+                .getSingleResult()).longValue();
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static void touchCars(List<Person> persons) {
+        persons.forEach(person -> person.getCars().size());
+    }
+}
@@ -0,0 +1,104 @@
+package com.spl.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    PasswordEncoder encoder = spy(new BCryptPasswordEncoder(4));
+
+    CacheEvictingUserDetailsManager users;
+
+    CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        AuthenticationCache cache = new AuthenticationCache(100, Duration.ofMinutes(5));
+        users = new CacheEvictingUserDetailsManager(List.of(user("password1")), cache);
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+        delegate.setUserDetailsService(users);
+        delegate.setPasswordEncoder(encoder);
+        provider = new CachingAuthenticationProvider(delegate, cache);
+        clearInvocations(encoder);
+    }
+
+    @Test
+    void repeatedLoginSkipsPasswordCheck() {
+        Authentication first = provider.authenticate(token("password1"));
+        Authentication second = provider.authenticate(token("password1"));
+
+        verify(encoder, times(1)).matches(any(), any());
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("user1");
+        assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+    }
+
+    @Test
+    void wrongPasswordIsNeverCached() {
+        provider.authenticate(token("password1"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("password2")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("password2")));
+        verify(encoder, times(3)).matches(any(), any());
+    }
+
+    @Test
+    void updatedUserIsCheckedAgain() {
+        provider.authenticate(token("password1"));
+
+        users.updateUser(user("password2"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("password1")));
+        assertThat(provider.authenticate(token("password2")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void passwordChangedWhileLoginIsCheckedIsNotCached() {
+        doAnswer(invocation -> {
+            Object matches = invocation.callRealMethod();
+            users.updateUser(user("password2"));
+            return matches;
+        }).doCallRealMethod().when(encoder).matches(any(), any());
+
+        assertThat(provider.authenticate(token("password1")).isAuthenticated()).isTrue();
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("password1")));
+        assertThat(provider.authenticate(token("password2")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void deletedUserIsRejected() {
+        provider.authenticate(token("password1"));
+
+        users.deleteUser("user1");
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("password1")));
+    }
+
+    private UserDetails user(String password) {
+        return User.withUsername("user1")
+                .password(new BCryptPasswordEncoder(4).encode(password))
+                .roles("USER")
+                .build();
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String password) {
+        return new UsernamePasswordAuthenticationToken("user1", password);
+    }
+}
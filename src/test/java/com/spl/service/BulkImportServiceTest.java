@@ -0,0 +1,182 @@
+package com.spl.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spl.cache.GarageCaches;
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent;
+import com.spl.entity.Person;
+import com.spl.outbox.ChangeLog;
+import com.spl.repository.CarRepository;
+import com.spl.repository.ChangeEventRepository;
+import com.spl.repository.PersonRepository;
+import com.spl.sync.SyncSequence;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.verify;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+@DataJpaTest
+@Import({BulkImportService.class, ChangeLog.class, SyncSequence.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = NOT_SUPPORTED)
+class BulkImportServiceTest {
+
+    @Autowired
+    BulkImportService service;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    GarageCaches caches;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = personRepository.save(new Person(null, "Alex", "Cole")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("alter table cars drop constraint if exists cars_model_test_ck");
+        jdbcTemplate.execute("alter table persons drop constraint if exists persons_last_name_test_ck");
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+        changeEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importCarsFromJsonArray() throws IOException {
+        BulkResult result = service.importCars(cars("[" + carJson(1) + "," + carJson(2) + "]"));
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).isEmpty();
+        assertThat(carRepository.count()).isEqualTo(2);
+        verify(caches).evictPerson(ownerId);
+    }
+
+    @Test
+    void importCarsFromNdjsonSpanningSeveralChunks() throws IOException {
+        int rows = BulkImportService.CHUNK_SIZE * 2 + 7;
+        String ndjson = IntStream.range(0, rows).mapToObj(this::carJson).collect(Collectors.joining("\n"));
+        BulkResult result = service.importCars(cars(ndjson));
+        assertThat(result.getAccepted()).isEqualTo(rows);
+        assertThat(carRepository.count()).isEqualTo(rows);
+    }
+
+    @Test
+    void importCarsReportsEveryRejectedRow() throws IOException {
+        String existing = carJson(1);
+        service.importCars(cars(existing));
+        String invalidVin = "{\"vin\":\"KL1NF193E6\",\"number\":\"BB0001BB\",\"manufacturer\":\"Chevrolet\"," +
+                "\"model\":\"Lacetti\",\"owner\":" + ownerId + "}";
+        String unknownOwner = carJson(3).replace("\"owner\":" + ownerId, "\"owner\":" + (ownerId + 100));
+        String wrongType = "{\"vin\":\"KL1NF193E6K000004\",\"owner\":\"abc\"}";
+        String ndjson = String.join("\n", existing, invalidVin, unknownOwner, wrongType, carJson(5), carJson(5));
+
+        BulkResult result = service.importCars(cars(ndjson));
+
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).extracting(BulkResult.RowError::getIndex).containsExactly(0, 1, 2, 3, 5);
+        assertThat(result.getRejected().get(0).getErrors()).containsExactly("This vin is already exists");
+        assertThat(result.getRejected().get(1).getErrors()).containsExactly("VIN should be 17 characters length");
+        assertThat(result.getRejected().get(2).getErrors())
+                .containsExactly(format("No person with id %d in DB", ownerId + 100));
+        assertThat(result.getRejected().get(4).getErrors()).containsExactly("This vin is already exists");
+        assertThat(carRepository.count()).isEqualTo(2);
+        assertThat(changeEventRepository.findAll()).extracting(ChangeEvent::getEntityId)
+                .containsExactlyInAnyOrder("KL1NF193E6K000001", "KL1NF193E6K000005");
+    }
+
+    @Test
+    void rowRejectedByTheDatabaseDoesNotFailTheRestOfItsChunk() throws IOException {
+        jdbcTemplate.execute("alter table cars add constraint cars_model_test_ck check (model <> 'Broken')");
+        String broken = carJson(2).replace("Lacetti", "Broken");
+
+        BulkResult result = service.importCars(cars(String.join("\n", carJson(1), broken, carJson(3))));
+
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).extracting(BulkResult.RowError::getIndex, BulkResult.RowError::getErrors)
+                .containsExactly(tuple(1, Set.of("Rejected by the database")));
+        assertThat(carRepository.findAll()).extracting(Car::getVin)
+                .containsExactlyInAnyOrder("KL1NF193E6K000001", "KL1NF193E6K000003");
+        assertThat(changeEventRepository.findAll()).extracting(ChangeEvent::getEntityId)
+                .containsExactlyInAnyOrder("KL1NF193E6K000001", "KL1NF193E6K000003");
+    }
+
+    @Test
+    void personRejectedByTheDatabaseDoesNotFailTheRestOfItsChunk() throws IOException {
+        jdbcTemplate.execute("alter table persons add constraint persons_last_name_test_ck check (last_name <> 'Broken')");
+        String ndjson = "{\"firstName\":\"Anna\",\"lastName\":\"Cole\"}\n" +
+                "{\"firstName\":\"Bob\",\"lastName\":\"Broken\"}\n" +
+                "{\"firstName\":\"Sam\",\"lastName\":\"Reed\"}";
+
+        BulkResult result = service.importPersons(objectMapper.readerFor(Person.class).readValues(ndjson));
+
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).extracting(BulkResult.RowError::getIndex).containsExactly(1);
+        assertThat(personRepository.findAll()).extracting(Person::getFirstName)
+                .containsExactlyInAnyOrder("Alex", "Anna", "Sam");
+    }
+
+    @Test
+    void importCarsStopsOnMalformedJson() throws IOException {
+        BulkResult result = service.importCars(cars(carJson(1) + "\n{\"vin\":"));
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).hasSize(1);
+        assertThat(result.getRejected().get(0).getIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void importPersonsIgnoresSubmittedIds() throws IOException {
+        String ndjson = "{\"id\":" + ownerId + ",\"firstName\":\"Anna\",\"lastName\":\"Cole\"}\n" +
+                "{\"firstName\":\"A\",\"lastName\":\"Cole\"}\n" +
+                "{\"firstName\":\"Bob\",\"lastName\":\"Ross\",\"cars\":[" + carJson(1) + "]}";
+        BulkResult result = service.importPersons(objectMapper.readerFor(Person.class).readValues(ndjson));
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).extracting(BulkResult.RowError::getErrors).containsExactly(
+                Set.of("First name should be between 2 and 20 characters length"),
+                Set.of("Cars should be imported via /cars/bulk"));
+        assertThat(personRepository.count()).isEqualTo(2);
+        assertThat(personRepository.findById(ownerId).orElseThrow().getFirstName()).isEqualTo("Alex");
+    }
+
+    private MappingIterator<Car> cars(String json) throws IOException {
+        return objectMapper.readerFor(Car.class).readValues(json);
+    }
+
+    private String carJson(int i) {
+        return format("{\"vin\":\"KL1NF193E6K%06d\",\"number\":\"AA%06d\",\"manufacturer\":\"Chevrolet\"," +
+                "\"model\":\"Lacetti\",\"owner\":%d}", i, i, ownerId);
+    }
+}
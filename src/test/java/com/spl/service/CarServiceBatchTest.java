@@ -0,0 +1,128 @@
+package com.spl.service;
+
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.ChangeEventRepository;
+import com.spl.repository.PersonRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
+import static com.spl.entity.ChangeEvent.EntityType.CAR;
+import static com.spl.entity.ChangeEvent.EntityType.PERSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@SpringBootTest
+class CarServiceBatchTest {
+    static final List<String> VINS = List.of("KL1NF193E6K323675", "KL1NF193E6K323676", "KL1NF193E6K323677");
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Person owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = personService.add(new Person(null, "Alex", "Cole"));
+        for (int i = 0; i < VINS.size(); i++) {
+            carService.add(Car.builder()
+                    .vin(VINS.get(i))
+                    .number("AA111" + i + "AA")
+                    .manufacturer("Chevrolet")
+                    .model("Lacetti")
+                    .owner(owner.getId())
+                    .build());
+        }
+        changeEventRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+        changeEventRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from sync_tombstones");
+    }
+
+    @Test
+    void removeByOwnerDeletesEveryCarAndDropsCachedCopies() {
+        carService.findCar(VINS.get(0));
+        assertThat(personService.findById(owner.getId()).getCars()).hasSize(3);
+
+        assertThat(carService.removeByOwner(owner.getId()).getAffected()).isEqualTo(3);
+
+        assertThat(carRepository.count()).isZero();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> carService.findCar(VINS.get(0)));
+        assertThat(e.getStatus()).isEqualTo(NOT_FOUND);
+        assertThat(personService.findById(owner.getId()).getCars()).isEmpty();
+        assertThat(changeEventRepository.findAll())
+                .extracting(ChangeEvent::getEntity, ChangeEvent::getEntityId, ChangeEvent::getType)
+                .containsExactlyInAnyOrder(VINS.stream().map(vin -> tuple(CAR, vin, DELETED)).toArray(Tuple[]::new));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from sync_tombstones", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void updateAllMovesCarsToAnotherOwner() {
+        Person buyer = personService.add(new Person(null, "Sam", "Reed"));
+        Car before = carService.findCar(VINS.get(0));
+        assertThat(personService.findById(buyer.getId()).getCars()).isEmpty();
+
+        BatchResult result = carService.updateAll(
+                new CarBatchUpdate(List.of(VINS.get(0), VINS.get(1), "WVWZZZ1JZXW000001"), null, "Gentra", buyer.getId()));
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        Car after = carService.findCar(VINS.get(0));
+        assertThat(after.getModel()).isEqualTo("Gentra");
+        assertThat(after.getOwner()).isEqualTo(buyer.getId());
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(personService.findById(buyer.getId()).getCars()).extracting(Car::getVin)
+                .containsExactlyInAnyOrder(VINS.get(0), VINS.get(1));
+        assertThat(personService.findById(owner.getId()).getCars()).extracting(Car::getVin)
+                .containsExactly(VINS.get(2));
+        assertThat(changeEventRepository.findAll())
+                .extracting(ChangeEvent::getEntity, ChangeEvent::getEntityId, ChangeEvent::getType)
+                .containsExactlyInAnyOrder(
+                        tuple(PERSON, buyer.getId().toString(), CREATED),
+                        tuple(CAR, VINS.get(0), UPDATED),
+                        tuple(CAR, VINS.get(1), UPDATED));
+    }
+
+    @Test
+    void removingPersonDeletesTheirCars() {
+        personService.remove(owner.getId(), null);
+
+        assertThat(personRepository.existsById(owner.getId())).isFalse();
+        assertThat(carRepository.count()).isZero();
+        assertThat(changeEventRepository.count()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,104 @@
+package com.spl.service;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+@SpringBootTest
+class CarServiceConcurrencyTest {
+    static final int THREADS = 8;
+
+    @Autowired
+    CarService service;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = personRepository.save(new Person(null, "Alex", "Cole")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentAddsOfSameVinStoreOneCar() throws Exception {
+        List<Object> outcomes = race(i -> service.add(car("KL1NF193E6K323675", format("AA%04dAA", i))));
+        assertThat(outcomes).filteredOn(Car.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(ResponseStatusException.class::isInstance)
+                .hasSize(THREADS - 1)
+                .allMatch(e -> ((ResponseStatusException) e).getStatus() == CONFLICT);
+        assertThat(carRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentUpsertsOfNewVinStoreOneCar() throws Exception {
+        List<Object> outcomes = race(i -> service.upsert("KL1NF193E6K323675", car("KL1NF193E6K323675", "AA1111AA"), null));
+        assertThat(outcomes).filteredOn(Car.class::isInstance).isNotEmpty();
+        // losing the insert is a conflict; losing an update of the row another thread just inserted is a stale version
+        assertThat(outcomes).filteredOn(ResponseStatusException.class::isInstance)
+                .allMatch(e -> ((ResponseStatusException) e).getStatus() == CONFLICT
+                        || ((ResponseStatusException) e).getStatus() == PRECONDITION_FAILED);
+        assertThat(carRepository.count()).isEqualTo(1);
+    }
+
+    private List<Object> race(IntFunction<Car> call) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return call.apply(index);
+                } catch (ResponseStatusException e) {
+                    return e;
+                }
+            }));
+        }
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return outcomes;
+    }
+
+    private Car car(String vin, String number) {
+        return Car.builder()
+                .vin(vin)
+                .number(number)
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(ownerId)
+                .build();
+    }
+}
@@ -1,22 +1,44 @@
 package com.spl.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.spl.cache.GarageCaches;
 import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.outbox.ChangeLog;
 import com.spl.repository.CarRepository;
+import com.spl.sync.SyncSequence;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 @ExtendWith(MockitoExtension.class)
 public class CarServiceImpTest {
@@ -27,6 +49,21 @@ public class CarServiceImpTest {
     @Mock
     CarRepository repository;
 
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    GarageCaches caches;
+
+    @Mock
+    ChangeLog changes;
+
+    @Mock
+    SyncSequence syncSequence;
+
+    @Mock
+    MergePatch mergePatch;
+
     Car car = Car.builder()
             .vin("KL1NF193E6K323675")
             .number("AA1111AA")
@@ -46,16 +83,91 @@ public class CarServiceImpTest {
         assertThat(service.getCars()).isEqualTo(List.of(car));
     }
 
+    @Test
+    void getCarsPageStartsFromFirstVin() {
+        doReturn(List.of(car)).when(repository).findByVinGreaterThanOrderByVin("", PageRequest.of(0, 10));
+        assertThat(service.getCars(null, 10)).isEqualTo(List.of(car));
+    }
+
+    @Test
+    void getCarsPageContinuesAfterCursor() {
+        service.getCars("KL1NF193E6K323675", 10);
+        verify(repository).findByVinGreaterThanOrderByVin("KL1NF193E6K323675", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void streamCarsDetachesEveryConsumedCar() {
+        doReturn(Stream.of(car)).when(repository).streamAll();
+        List<Car> consumed = new ArrayList<>();
+        service.streamCars(consumed::add);
+        assertThat(consumed).containsExactly(car);
+        verify(entityManager).detach(car);
+    }
+
     @Test
     void addCarTest() {
-        doReturn(car).when(repository).save(car);
+        doReturn(car).when(repository).insert(car);
         assertThat(service.add(car)).isEqualTo(car);
+        verify(caches).evictPerson(1L);
+        verify(changes).car(car, CREATED);
     }
 
     @Test
     void addCarThrowsException() {
-        doReturn(Optional.of(car)).when(repository).findById(car.getVin());
-        assertThrows(ResponseStatusException.class, () -> service.add(car));
+        doThrow(violation("23505", "PUBLIC.PRIMARY_KEY_1 ON PUBLIC.CARS(VIN)")).when(repository).insert(car);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.add(car));
+        assertThat(e.getStatus()).isEqualTo(CONFLICT);
+        assertThat(e.getReason()).isEqualTo("This vin is already exists");
+        verifyNoInteractions(caches, changes);
+    }
+
+    @Test
+    void addCarWithTakenNumberThrowsConflict() {
+        doThrow(violation("23505", "PUBLIC.CARS_NUMBER_UQ_INDEX_1 ON PUBLIC.CARS(NUMBER)"))
+                .when(repository).insert(car);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.add(car));
+        assertThat(e.getStatus()).isEqualTo(CONFLICT);
+        assertThat(e.getReason()).isEqualTo("This number is already exists");
+    }
+
+    @Test
+    void addCarWithUnknownOwnerThrowsBadRequest() {
+        doThrow(violation("23506", "FKBRC5CIES0R1CQYOBLFS52KQGW")).when(repository).insert(car);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.add(car));
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+        assertThat(e.getReason()).isEqualTo("No person with id 1 in DB");
+    }
+
+    @Test
+    void upsertInsertsMissingCar() {
+        doReturn(car).when(repository).insert(car);
+        assertThat(service.upsert("KL1NF193E6K323675", car, null)).isEqualTo(car);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void upsertReplacesExistingCar() {
+        Car existing = Car.builder().vin("KL1NF193E6K323675").number("BB2222BB").owner(2L).build();
+        doReturn(Optional.of(existing)).when(repository).findById("KL1NF193E6K323675");
+        Car stored = service.upsert("KL1NF193E6K323675", car, null);
+        assertThat(stored.getNumber()).isEqualTo("AA1111AA");
+        assertThat(stored.getOwner()).isEqualTo(1L);
+        verify(repository, never()).insert(any());
+        verify(caches).evictPerson(2L);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void upsertRejectsVinMismatch() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.upsert("WF0AXXWPDA3U77669", car, null));
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState, String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("violation", sqlState), constraint));
     }
 
     @Test
@@ -69,21 +181,252 @@ public class CarServiceImpTest {
         assertThrows(ResponseStatusException.class, () -> service.findCar("KL1NF193E6K323675"));
     }
 
+    @Test
+    void notFoundIsThrownWithoutStackTrace() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.findCar("KL1NF193E6K323675"));
+        assertThat(e.getStatus()).isEqualTo(NOT_FOUND);
+        assertThat(e.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void findOwnerTest() {
+        Person owner = new Person(1L, "Alex", "Cole");
+        doReturn(Optional.of(owner)).when(repository).findOwnerByVin("KL1NF193E6K323675");
+        assertThat(service.findOwner("KL1NF193E6K323675")).isEqualTo(owner);
+    }
+
+    @Test
+    void findOwnerThrowsException() {
+        assertThrows(ResponseStatusException.class, () -> service.findOwner("KL1NF193E6K323675"));
+    }
+
     @Test
     void updateCarTest() {
         doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
         car.setNumber("XXXXX");
-        assertThat(service.updateCar("KL1NF193E6K323675", car)).isEqualTo(car);
+        assertThat(service.updateCar("KL1NF193E6K323675", car, null)).isEqualTo(car);
+        verify(caches).evictPerson(1L);
+        verify(changes).car(car, UPDATED);
+    }
+
+    @Test
+    void updateCarToAnotherOwnerEvictsBothOwners() {
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        Car replaced = Car.builder().vin("KL1NF193E6K323675").number("AA1111AA")
+                .manufacturer("Chevrolet").model("Lacetti").owner(2L).build();
+
+        assertThat(service.updateCar("KL1NF193E6K323675", replaced, null).getOwner()).isEqualTo(2L);
+        verify(changes).car(car, UPDATED);
+        verify(caches).evictPerson(1L);
+        verify(caches).evictPerson(2L);
+    }
+
+    @Test
+    void updateCarWithNewVinAndOwnerEvictsBothOwners() {
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        Car renamed = Car.builder().vin("WF0AXXWPDA3U77669").number("AA1111AA")
+                .manufacturer("Chevrolet").model("Lacetti").owner(2L).build();
+        doReturn(1).when(repository).changeVin("KL1NF193E6K323675", null, renamed, 0L);
+        doReturn(Optional.of(renamed)).when(repository).findById("WF0AXXWPDA3U77669");
+
+        assertThat(service.updateCar("KL1NF193E6K323675", renamed, null)).isSameAs(renamed);
+        verify(caches).evictPerson(1L);
+        verify(caches).evictPerson(2L);
+    }
+
+    @Test
+    void updateCarWithNewVinMovesTheRowAndRecordsDeleteAndCreate() {
+        car.setVersion(2L);
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        Car renamed = Car.builder().vin("WF0AXXWPDA3U77669").number("AA1111AA")
+                .manufacturer("Chevrolet").model("Lacetti").owner(1L).version(3L).build();
+        doReturn(5L).when(syncSequence).next();
+        doReturn(1).when(repository).changeVin("KL1NF193E6K323675", 2L, renamed, 5L);
+        doReturn(Optional.of(renamed)).when(repository).findById("WF0AXXWPDA3U77669");
+
+        assertThat(service.updateCar("KL1NF193E6K323675", renamed, null)).isSameAs(renamed);
+        verify(repository, never()).flush();
+        verify(changes).car("KL1NF193E6K323675", DELETED);
+        verify(changes).car(renamed, CREATED);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void updateCarWithNewVinLosingConcurrentUpdateFailsPrecondition() {
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        Car renamed = Car.builder().vin("WF0AXXWPDA3U77669").number("AA1111AA")
+                .manufacturer("Chevrolet").model("Lacetti").owner(1L).build();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.updateCar("KL1NF193E6K323675", renamed, null));
+        assertThat(e.getStatus()).isEqualTo(PRECONDITION_FAILED);
+        verifyNoInteractions(changes, caches);
+    }
+
+    @Test
+    void updateCarToTakenVinFailsWithConflict() {
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        Car renamed = Car.builder().vin("WF0AXXWPDA3U77669").number("AA1111AA")
+                .manufacturer("Chevrolet").model("Lacetti").owner(1L).build();
+        doThrow(violation("23505", "PRIMARY KEY ON PUBLIC.CARS(VIN)")).when(repository)
+                .changeVin("KL1NF193E6K323675", null, renamed, 0L);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.updateCar("KL1NF193E6K323675", renamed, null));
+        assertThat(e.getStatus()).isEqualTo(CONFLICT);
     }
 
     @Test
     void updateCarThrowsException() {
-        assertThrows(ResponseStatusException.class, () -> service.updateCar("KL1NF193E6K323675", car));
+        assertThrows(ResponseStatusException.class, () -> service.updateCar("KL1NF193E6K323675", car, null));
+    }
+
+    @Test
+    void updateCarWithCurrentTagSucceeds() {
+        car.setVersion(2L);
+        car.setSyncSeq(7L);
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        assertThat(service.updateCar("KL1NF193E6K323675", car, "\"7-1\", \"7-2\"")).isEqualTo(car);
+    }
+
+    @Test
+    void updateCarWithStaleTagFailsPrecondition() {
+        car.setVersion(2L);
+        car.setSyncSeq(7L);
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.updateCar("KL1NF193E6K323675", car, "\"7-1\""));
+        assertThat(e.getStatus()).isEqualTo(PRECONDITION_FAILED);
+        verify(repository, never()).flush();
+        verifyNoInteractions(caches);
+    }
+
+    @Test
+    void updateCarLosingConcurrentUpdateFailsPrecondition() {
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        doThrow(new ObjectOptimisticLockingFailureException(Car.class, "KL1NF193E6K323675")).when(repository).flush();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.updateCar("KL1NF193E6K323675", car, null));
+        assertThat(e.getStatus()).isEqualTo(PRECONDITION_FAILED);
     }
 
     @Test
     void removeCarTest() {
-        service.remove("KL1NF193E6K323675");
-        verify(repository).deleteById("KL1NF193E6K323675");
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        service.remove("KL1NF193E6K323675", null);
+        verify(repository).delete(car);
+        verify(changes).car(car, DELETED);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void removeMissingCarWithTagFailsPrecondition() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.remove("KL1NF193E6K323675", "*"));
+        assertThat(e.getStatus()).isEqualTo(PRECONDITION_FAILED);
+    }
+
+    @Test
+    void removeMissingCarDoesNothing() {
+        service.remove("KL1NF193E6K323675", null);
+        verify(repository, never()).delete(any());
+        verifyNoInteractions(caches);
+    }
+
+    @Test
+    void patchCarMovingToAnotherOwnerEvictsBothOwners() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode().put("owner", 2L);
+        doReturn(Optional.of(car)).when(repository).findById("KL1NF193E6K323675");
+        doAnswer(invocation -> {
+            car.setOwner(2L);
+            return car;
+        }).when(mergePatch).apply(patch, car, Set.of("number", "manufacturer", "model", "owner"));
+
+        assertThat(service.patch("KL1NF193E6K323675", patch, null).getOwner()).isEqualTo(2L);
+        verify(repository).flush();
+        verify(changes).car(car, UPDATED);
+        verify(caches).evictPerson(1L);
+        verify(caches).evictPerson(2L);
+    }
+
+    @Test
+    void patchMissingCarThrowsNotFound() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.patch("KL1NF193E6K323675", JsonNodeFactory.instance.objectNode(), null));
+        assertThat(e.getStatus()).isEqualTo(NOT_FOUND);
+        verifyNoInteractions(mergePatch);
+    }
+
+    @Test
+    void updateAllUpdatesExistingCarsInOneStatement() {
+        List<String> vins = List.of("KL1NF193E6K323675", "WVWZZZ1JZXW000001");
+        doReturn(Set.of("KL1NF193E6K323675")).when(repository).findExistingVins(vins);
+        doReturn(Set.of(1L)).when(repository).findOwnersByVinIn(Set.of("KL1NF193E6K323675"));
+        doReturn(7L).when(syncSequence).next();
+        doReturn(1).when(repository).update(Set.of("KL1NF193E6K323675"), null, null, 2L, 7L);
+
+        BatchResult result = service.updateAll(new CarBatchUpdate(vins, null, null, 2L));
+
+        assertThat(result.getAffected()).isEqualTo(1);
+        verify(changes).car("KL1NF193E6K323675", UPDATED);
+        verify(caches).evictPerson(1L);
+        verify(caches).evictPerson(2L);
+    }
+
+    @Test
+    void updateAllWithoutValuesIsRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.updateAll(new CarBatchUpdate(List.of("KL1NF193E6K323675"), null, null, null)));
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void updateAllToUnknownOwnerIsRejected() {
+        doReturn(Set.of("KL1NF193E6K323675")).when(repository).findExistingVins(List.of("KL1NF193E6K323675"));
+        doThrow(violation("23506", "FKBRC5CIES0R1CQYOBLFS52KQGW")).when(repository).update(Set.of("KL1NF193E6K323675"), null, null, 9L, 0L);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.updateAll(new CarBatchUpdate(List.of("KL1NF193E6K323675"), null, null, 9L)));
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+        verifyNoInteractions(changes);
+    }
+
+    @Test
+    void removeAllDeletesExistingCarsInOneStatement() {
+        Set<String> vins = Set.of("KL1NF193E6K323675");
+        doReturn(vins).when(repository).findExistingVins(vins);
+        doReturn(Set.of(1L)).when(repository).findOwnersByVinIn(vins);
+        doReturn(1).when(repository).deleteByVinIn(vins);
+
+        assertThat(service.removeAll(vins).getAffected()).isEqualTo(1);
+        verify(changes).car("KL1NF193E6K323675", DELETED);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void removeAllRejectsTooManyVins() {
+        List<String> vins = new ArrayList<>();
+        for (int i = 0; i <= CarServiceImp.MAX_BATCH; i++) {
+            vins.add(String.valueOf(i));
+        }
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.removeAll(vins));
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+    }
+
+    @Test
+    void removeByOwnerDeletesTheCarsReadBefore() {
+        doReturn(Set.of("KL1NF193E6K323675")).when(repository).findVinsByOwner(1L);
+        doReturn(1).when(repository).deleteByVinIn(Set.of("KL1NF193E6K323675"));
+
+        assertThat(service.removeByOwner(1L).getAffected()).isEqualTo(1);
+        verify(changes).car("KL1NF193E6K323675", DELETED);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void removeByOwnerWithoutCarsDoesNothing() {
+        assertThat(service.removeByOwner(1L).getAffected()).isZero();
+        verify(repository, never()).deleteByVinIn(any());
+        verifyNoInteractions(caches, changes);
     }
 }
@@ -0,0 +1,202 @@
+package com.spl.service;
+
+import com.spl.entity.Car;
+import com.spl.entity.ChangeEvent;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.ChangeEventRepository;
+import com.spl.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.EntityType.CAR;
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+/**
+ * Moves a car between VINs while other threads read it, and its owner, by either VIN.
+ */
+@SpringBootTest
+class CarVinChangeConcurrencyTest {
+    static final int READERS = 6;
+    static final int MOVES = 30;
+    static final String FIRST = "KL1NF193E6K323675";
+    static final String SECOND = "WF0AXXWPDA3U77669";
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+
+    Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = personRepository.save(new Person(null, "Alex", "Cole")).getId();
+        carService.add(car(FIRST, "AA1111AA"));
+        changeEventRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+        changeEventRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from sync_tombstones");
+    }
+
+    @Test
+    void readersSeeTheCarUnderExactlyOneVinWhileItMoves() throws Exception {
+        AtomicBoolean moving = new AtomicBoolean(true);
+        Queue<String> anomalies = new ConcurrentLinkedQueue<>();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            readers.add(executor.submit(() -> {
+                while (moving.get()) {
+                    read(anomalies);
+                }
+            }));
+        }
+
+        String vin = FIRST;
+        for (int i = 0; i < MOVES; i++) {
+            String next = vin.equals(FIRST) ? SECOND : FIRST;
+            Car moved = carService.updateCar(vin, car(next, format("AA%04dAA", i)), null);
+            assertThat(moved.getVin()).isEqualTo(next);
+            assertThat(moved.getOwner()).isEqualTo(ownerId);
+            vin = next;
+        }
+        moving.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(anomalies).isEmpty();
+        assertThat(carRepository.findAll()).extracting(Car::getVin, Car::getNumber, Car::getOwner)
+                .containsExactly(tuple(vin, format("AA%04dAA", MOVES - 1), ownerId));
+        assertThat(personRepository.findWithCarsById(ownerId).orElseThrow().getCars()).extracting(Car::getVin)
+                .containsExactly(vin);
+    }
+
+    @Test
+    void concurrentMovesOfTheSameCarMoveItOnce() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(READERS);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            String target = format("WF0AXXWPDA3U7766%d", i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return carService.updateCar(FIRST, car(target, "AA1111AA"), null);
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get(30, TimeUnit.SECONDS));
+        }
+
+        List<Car> moved = outcomes.stream().filter(Car.class::isInstance).map(Car.class::cast).collect(Collectors.toList());
+        assertThat(moved).hasSize(1);
+        String vin = moved.get(0).getVin();
+        // every target is a different free VIN, so a loser either saw the version move or loaded after the move
+        assertThat(outcomes).filteredOn(outcome -> !(outcome instanceof Car))
+                .hasSize(READERS - 1)
+                .allSatisfy(outcome -> assertThat(outcome).isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatus()).isIn(PRECONDITION_FAILED, NOT_FOUND)));
+        assertThat(carRepository.findAll()).extracting(Car::getVin).containsExactly(vin);
+        assertThat(personRepository.findWithCarsById(ownerId).orElseThrow().getCars()).extracting(Car::getVin)
+                .containsExactly(vin);
+        assertThat(changeEventRepository.findAll())
+                .extracting(ChangeEvent::getEntity, ChangeEvent::getEntityId, ChangeEvent::getType)
+                .containsExactlyInAnyOrder(tuple(CAR, FIRST, DELETED), tuple(CAR, vin, CREATED));
+        assertThat(jdbcTemplate.queryForList("select entity_id from sync_tombstones", String.class))
+                .containsExactly(FIRST);
+    }
+
+    /**
+     * Cached copies may lag behind, but a car found under a VIN must carry that VIN, and the owner found through
+     * a VIN must own exactly that car.
+     */
+    private void read(Queue<String> anomalies) {
+        try {
+            for (String vin : List.of(FIRST, SECOND)) {
+                Car car = findCar(vin);
+                if (car != null && !vin.equals(car.getVin())) {
+                    anomalies.add(format("%s found as %s", vin, car.getVin()));
+                }
+                Set<String> owned = findOwnedVins(vin);
+                if (owned != null && !owned.equals(Set.of(vin))) {
+                    anomalies.add(format("owner of %s has %s", vin, owned));
+                }
+            }
+        } catch (RuntimeException e) {
+            anomalies.add(e.toString());
+        }
+    }
+
+    private Set<String> findOwnedVins(String vin) {
+        try {
+            return carService.findOwner(vin).getCars().stream().map(Car::getVin).collect(Collectors.toSet());
+        } catch (ResponseStatusException e) {
+            if (e.getStatus() != NOT_FOUND) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    private Car findCar(String vin) {
+        try {
+            return carService.findCar(vin);
+        } catch (ResponseStatusException e) {
+            if (e.getStatus() != NOT_FOUND) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    private Car car(String vin, String number) {
+        return Car.builder()
+                .vin(vin)
+                .number(number)
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(ownerId)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.spl.service;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.ChangeEventRepository;
+import com.spl.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+@SpringBootTest
+class ETagsTest {
+    static final String VIN = "KL1NF193E6K323675";
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = personService.add(new Person(null, "Alex", "Cole")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+        changeEventRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from sync_tombstones");
+    }
+
+    @Test
+    void carCreatedAgainUnderTheSameVinGetsANewTag() {
+        carService.add(car());
+        String tag = ETags.of(carService.findCar(VIN));
+        carService.remove(VIN, null);
+        carService.add(car());
+
+        Car recreated = carService.findCar(VIN);
+        assertThat(recreated.getVersion()).isZero();
+        assertThat(ETags.of(recreated)).isNotEqualTo(tag);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> carService.updateCar(VIN, car(), tag));
+        assertThat(e.getStatus()).isEqualTo(PRECONDITION_FAILED);
+    }
+
+    @Test
+    void ownerOfACarCreatedAgainGetsANewTag() {
+        carService.add(car());
+        String tag = ETags.of(personService.findById(ownerId));
+        carService.remove(VIN, null);
+        carService.add(car());
+
+        Person owner = personService.findById(ownerId);
+        assertThat(owner.getCars()).extracting(Car::getVin).containsExactly(VIN);
+        assertThat(ETags.of(owner)).isNotEqualTo(tag);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> personService.update(ownerId, new Person(ownerId, "Alex", "Reed"), tag));
+        assertThat(e.getStatus()).isEqualTo(PRECONDITION_FAILED);
+    }
+
+    private Car car() {
+        return Car.builder()
+                .vin(VIN)
+                .number("AA1111AA")
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(ownerId)
+                .build();
+    }
+}
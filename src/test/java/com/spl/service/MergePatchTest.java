@@ -0,0 +1,88 @@
+package com.spl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spl.entity.Car;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+class MergePatchTest {
+    static final Set<String> FIELDS = Set.of("number", "manufacturer", "model", "owner");
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    MergePatch mergePatch = new MergePatch(objectMapper, Validation.buildDefaultValidatorFactory().getValidator());
+
+    Car car = Car.builder()
+            .vin("KL1NF193E6K323675")
+            .number("AA1111AA")
+            .manufacturer("Chevrolet")
+            .model("Lacetti")
+            .owner(1L)
+            .build();
+
+    @Test
+    void patchOverwritesOnlyItsMembers() throws Exception {
+        mergePatch.apply(objectMapper.readTree("{\"number\":\"BB2222BB\",\"owner\":2}"), car, FIELDS);
+
+        assertThat(car.getNumber()).isEqualTo("BB2222BB");
+        assertThat(car.getOwner()).isEqualTo(2L);
+        assertThat(car.getManufacturer()).isEqualTo("Chevrolet");
+        assertThat(car.getModel()).isEqualTo("Lacetti");
+    }
+
+    @Test
+    void onlyPatchedFieldsAreValidated() throws Exception {
+        car.setModel("");
+
+        mergePatch.apply(objectMapper.readTree("{\"number\":\"BB2222BB\"}"), car, FIELDS);
+
+        assertThat(car.getNumber()).isEqualTo("BB2222BB");
+    }
+
+    @Test
+    void invalidMemberIsReported() throws Exception {
+        ConstraintViolationException e = assertThrows(ConstraintViolationException.class,
+                () -> mergePatch.apply(objectMapper.readTree("{\"number\":\"B\",\"owner\":null}"), car, FIELDS));
+
+        assertThat(e.getConstraintViolations())
+                .extracting(violation -> violation.getPropertyPath().toString(), ConstraintViolation::getMessage)
+                .containsExactlyInAnyOrder(
+                        tuple("number", "Number should be between 2 and 10 characters length"),
+                        tuple("owner", "Owner Id should not be empty"));
+    }
+
+    @Test
+    void fieldOutsideThePatchableOnesIsRejected() throws Exception {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> mergePatch.apply(objectMapper.readTree("{\"vin\":\"WVWZZZ1JZXW000001\"}"), car, FIELDS));
+
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+        assertThat(car.getVin()).isEqualTo("KL1NF193E6K323675");
+    }
+
+    @Test
+    void patchThatIsNotAnObjectIsRejected() throws Exception {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> mergePatch.apply(objectMapper.readTree("[]"), car, FIELDS));
+
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+    }
+
+    @Test
+    void memberOfWrongTypeIsRejected() throws Exception {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> mergePatch.apply(objectMapper.readTree("{\"owner\":\"abc\"}"), car, FIELDS));
+
+        assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+    }
+}
@@ -1,6 +1,11 @@
 package com.spl.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.spl.cache.GarageCaches;
+import com.spl.entity.Car;
 import com.spl.entity.Person;
+import com.spl.outbox.ChangeLog;
 import com.spl.repository.PersonRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,16 +13,31 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.spl.entity.ChangeEvent.ChangeType.CREATED;
+import static com.spl.entity.ChangeEvent.ChangeType.DELETED;
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class PersonServiceImplTest {
@@ -29,6 +49,21 @@ class PersonServiceImplTest {
     @Mock
     PersonRepository repository;
 
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    GarageCaches caches;
+
+    @Mock
+    ChangeLog changes;
+
+    @Mock
+    CarService carService;
+
+    @Mock
+    MergePatch mergePatch;
+
     Person person = Person.builder()
             .id(1L)
             .firstName("Alex")
@@ -44,10 +79,32 @@ class PersonServiceImplTest {
 
     @Test
     void findAllReturnNotEmptyList() {
-        doReturn(List.of(person)).when(repository).findAll();
+        doReturn(List.of(person)).when(repository).findAllWithCars();
         assertThat(service.findAll()).isEqualTo(List.of(person));
     }
 
+    @Test
+    void findAllPageStartsFromFirstId() {
+        doReturn(List.of(1L)).when(repository).findIdsAfter(0L, PageRequest.of(0, 10));
+        doReturn(List.of(person)).when(repository).findAllWithCarsByIdIn(List.of(1L));
+        assertThat(service.findAll(null, 10)).isEqualTo(List.of(person));
+    }
+
+    @Test
+    void findAllPageSkipsFetchWhenNoIdsLeft() {
+        assertThat(service.findAll(1L, 10)).isEqualTo(List.of());
+        verify(repository, never()).findAllWithCarsByIdIn(anyCollection());
+    }
+
+    @Test
+    void streamAllDetachesEveryConsumedPerson() {
+        doReturn(Stream.of(person)).when(repository).streamAllWithCars();
+        List<Person> consumed = new ArrayList<>();
+        service.streamAll(consumed::add);
+        assertThat(consumed).containsExactly(person);
+        verify(entityManager).detach(person);
+    }
+
     @Test
     void findByIdTest() {
         doReturn(Optional.ofNullable(person)).when(repository).findById(1L);
@@ -64,22 +121,94 @@ class PersonServiceImplTest {
         doReturn(person).when(repository).save(person);
         assertThat(service.add(person)).isEqualTo(person);
         verify(repository).save(person);
+        verify(changes).person(person, CREATED);
     }
 
     @Test
     void updateTest() {
-        doReturn(Optional.ofNullable(person)).when(repository).findById(1L);
-        assertThat(service.update(1L, person)).isEqualTo(person);
+        doReturn(Optional.ofNullable(person)).when(repository).findWithCarsById(1L);
+        assertThat(service.update(1L, person, null)).isEqualTo(person);
+        verify(caches).evictPerson(1L);
+        verify(changes).person(person, UPDATED);
+    }
+
+    @Test
+    void updateWithStaleTagFailsPrecondition() {
+        person.addCar(Car.builder().vin("KL1NF193E6K323675").owner(1L).version(0L).build());
+        doReturn(Optional.of(person)).when(repository).findWithCarsById(1L);
+        String tag = ETags.of(person);
+        person.getCars().iterator().next().setVersion(1L);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.update(1L, person, tag));
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(caches);
     }
 
     @Test
     void updatePersonThrowsException() {
-        assertThrows(ResponseStatusException.class, () -> service.update(1L, person));
+        assertThrows(ResponseStatusException.class, () -> service.update(1L, person, null));
+    }
+
+    @Test
+    void patchPersonTest() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode().put("lastName", "Reed");
+        doReturn(Optional.of(person)).when(repository).findWithCarsById(1L);
+        doReturn(person).when(mergePatch).apply(patch, person, Set.of("firstName", "lastName"));
+        assertThat(service.patch(1L, patch, null)).isSameAs(person);
+        verify(repository).flush();
+        verify(changes).person(person, UPDATED);
+        verify(caches).evictPerson(1L);
+    }
+
+    @Test
+    void patchPersonWithStaleTagFailsPrecondition() {
+        doReturn(Optional.of(person)).when(repository).findWithCarsById(1L);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.patch(1L, JsonNodeFactory.instance.objectNode(), "\"00000000000000000000000000000000\""));
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(mergePatch);
     }
 
     @Test
     void removeTest() {
-        service.remove(1L);
-        verify(repository).deleteById(1L);
+        person.setVersion(3L);
+        doReturn(Optional.of(person)).when(repository).findById(1L);
+        doReturn(1).when(repository).deleteByIdAndVersion(1L, 3L);
+        service.remove(1L, null);
+        verify(carService).removeByOwner(1L);
+        verify(repository, never()).delete(any());
+        verify(caches).evictPerson(1L);
+        verify(changes).person(person, DELETED);
+    }
+
+    @Test
+    void removeWithTagChecksTheCars() {
+        person.setVersion(3L);
+        person.addCar(Car.builder().vin("KL1NF193E6K323675").owner(1L).version(0L).build());
+        doReturn(Optional.of(person)).when(repository).findWithCarsById(1L);
+        String tag = ETags.of(person);
+        person.getCars().iterator().next().setVersion(1L);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.remove(1L, tag));
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(carService, caches);
+    }
+
+    @Test
+    void removeLosingConcurrentUpdateFailsPrecondition() {
+        person.setVersion(3L);
+        doReturn(Optional.of(person)).when(repository).findById(1L);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.remove(1L, null));
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(changes);
+    }
+
+    @Test
+    void removeLosingConcurrentCarAddFailsPrecondition() {
+        person.setVersion(3L);
+        doReturn(Optional.of(person)).when(repository).findById(1L);
+        doThrow(new DataIntegrityViolationException("CARS_PERSON_FK")).when(repository).deleteByIdAndVersion(1L, 3L);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.remove(1L, null));
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(changes, caches);
     }
-}
\ No newline at end of file
+}
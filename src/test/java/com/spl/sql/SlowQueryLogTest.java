@@ -0,0 +1,108 @@
+package com.spl.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLogTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void logsSlowStatementWithHandlerAndParameterTypesOnly(CapturedOutput output) {
+        MDC.put(SlowQueryLog.HANDLER, "CarController.findCar");
+
+        log(100, 1.0, 50).afterQuery(execution(250), query("select * from cars\n where vin=? and person_id=?",
+                "KL1NF193E6K323675", 42L));
+
+        assertThat(output).contains("slow_query duration_ms=250 threshold_ms=100 handler=CarController.findCar",
+                "sql=\"select * from cars where vin=? and person_id=?\"", "params=\"[String,Long]\"");
+        assertThat(output).doesNotContain("KL1NF193E6K323675");
+        assertThat(registry.counter(SlowQueryLog.METRIC, "logged", "true").count()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresStatementsUnderThreshold(CapturedOutput output) {
+        log(100, 1.0, 50).afterQuery(execution(99), query("select 1"));
+
+        assertThat(output).doesNotContain("slow_query");
+        assertThat(registry.find(SlowQueryLog.METRIC).counter()).isNull();
+    }
+
+    @Test
+    void countsButDoesNotLogUnsampledStatements(CapturedOutput output) {
+        log(100, 0.0, 50).afterQuery(execution(300), query("select 1"));
+
+        assertThat(output).doesNotContain("slow_query");
+        assertThat(registry.counter(SlowQueryLog.METRIC, "logged", "false").count()).isEqualTo(1);
+    }
+
+    @Test
+    void capsLinesPerSecond(CapturedOutput output) {
+        SlowQueryLog log = log(0, 1.0, 3);
+
+        for (int i = 0; i < 10; i++) {
+            log.afterQuery(execution(5), query("select 1"));
+        }
+
+        double logged = registry.counter(SlowQueryLog.METRIC, "logged", "true").count();
+        assertThat(logged).isBetween(3.0, 6.0);
+        assertThat(logged + registry.counter(SlowQueryLog.METRIC, "logged", "false").count()).isEqualTo(10);
+        assertThat(output).contains("handler=-");
+    }
+
+    private SlowQueryLog log(long thresholdMillis, double sampleRate, int maxPerSecond) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("registry", registry));
+        return new SlowQueryLog(Duration.ofMillis(thresholdMillis), sampleRate, maxPerSecond,
+                beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMillis);
+        execution.setSuccess(true);
+        return execution;
+    }
+
+    private static List<QueryInfo> query(String sql, Object... parameters) {
+        List<ParameterSetOperation> parameterSet = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++) {
+            parameterSet.add(parameter(i + 1, parameters[i]));
+        }
+        QueryInfo query = new QueryInfo(sql);
+        query.getParametersList().add(parameterSet);
+        return List.of(query);
+    }
+
+    private static ParameterSetOperation parameter(int index, Object value) {
+        try {
+            return new ParameterSetOperation(PreparedStatement.class.getMethod("setObject", int.class, Object.class),
+                    new Object[]{index, value});
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
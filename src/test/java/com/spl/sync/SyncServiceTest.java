@@ -0,0 +1,169 @@
+package com.spl.sync;
+
+import com.spl.entity.Car;
+import com.spl.entity.Person;
+import com.spl.repository.CarRepository;
+import com.spl.repository.ChangeEventRepository;
+import com.spl.repository.PersonRepository;
+import com.spl.service.CarService;
+import com.spl.service.PersonService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class SyncServiceTest {
+
+    @Autowired
+    SyncService syncService;
+
+    @Autowired
+    SyncSequence syncSequence;
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Person owner;
+
+    long start;
+
+    @BeforeEach
+    void setUp() {
+        owner = personService.add(new Person(null, "Alex", "Cole"));
+        start = changesSince(0).stream().mapToLong(SyncRecord::getSeq).max().orElseThrow() - 1;
+    }
+
+    @AfterEach
+    void tearDown() {
+        carRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+        changeEventRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from sync_tombstones");
+    }
+
+    @Test
+    void changesComeInTheOrderTheyWereMadeWithTombstonesForDeletions() {
+        Car kept = carService.add(car("KL1NF193E6K323675"));
+        Car removed = carService.add(car("WVWZZZ1JZXW000001"));
+        kept.setNumber("AA2222AA");
+        carService.updateCar(kept.getVin(), kept, null);
+        carService.remove(removed.getVin(), null);
+
+        assertThat(changesSince(start))
+                .extracting(SyncRecord::getType, SyncRecord::getVin, SyncRecord::getId, SyncRecord::getNumber,
+                        SyncRecord::getDeleted)
+                .containsExactly(
+                        tuple(SyncRecord.PERSON, null, owner.getId(), null, null),
+                        tuple(SyncRecord.CAR, "KL1NF193E6K323675", null, "AA2222AA", null),
+                        tuple(SyncRecord.CAR, "WVWZZZ1JZXW000001", null, null, true));
+        assertThat(changesSince(start)).extracting(SyncRecord::getSeq).isSorted();
+    }
+
+    @Test
+    void nothingChangedAfterTheLastSeqReturned() {
+        carService.add(car("KL1NF193E6K323675"));
+        long last = changesSince(start).get(1).getSeq();
+
+        assertThat(changesSince(last)).isEmpty();
+    }
+
+    @Test
+    void lowerValueCommittingAfterHigherOneIsStillDelivered() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Person> early = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                Person person = personService.add(new Person(null, "Early", "Writer"));
+                taken.countDown();
+                await(commit);
+                return person;
+            }));
+            assertThat(taken.await(10, TimeUnit.SECONDS)).isTrue();
+            Person late = personService.add(new Person(null, "Late", "Writer"));
+
+            assertThat(changesSince(start)).extracting(SyncRecord::getId).containsExactly(owner.getId());
+
+            commit.countDown();
+            Person committed = early.get(10, TimeUnit.SECONDS);
+            List<SyncRecord> changes = changesSince(start);
+            assertThat(changes).extracting(SyncRecord::getId)
+                    .containsExactly(owner.getId(), committed.getId(), late.getId());
+            assertThat(changes).extracting(SyncRecord::getSeq).isSorted();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void horizonStaysBelowValuesNotYetHandedOut() {
+        long horizon = syncSequence.horizon();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long value = syncSequence.next();
+
+            assertThat(value).isGreaterThanOrEqualTo(horizon);
+            assertThat(syncSequence.horizon()).isEqualTo(value);
+        });
+
+        assertThat(syncSequence.horizon()).isGreaterThan(horizon);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<SyncRecord> changesSince(long since) {
+        List<SyncRecord> records = new ArrayList<>();
+        syncService.changesSince(since, records::add);
+        return records;
+    }
+
+    private Car car(String vin) {
+        return Car.builder()
+                .vin(vin)
+                .number("AA" + vin.substring(vin.length() - 6))
+                .manufacturer("Chevrolet")
+                .model("Lacetti")
+                .owner(owner.getId())
+                .build();
+    }
+}
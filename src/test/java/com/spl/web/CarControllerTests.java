@@ -4,8 +4,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spl.entity.Car;
 import com.spl.entity.Person;
+import com.spl.repository.CarFilter;
+import com.spl.service.BatchResult;
+import com.spl.service.BulkImportService;
+import com.spl.service.BulkResult;
+import com.spl.service.CarBatchUpdate;
 import com.spl.service.CarServiceImp;
-import com.spl.service.PersonServiceImpl;
+import com.spl.service.MergePatch;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -13,18 +18,29 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
-import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpHeaders.*;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
+import static org.springframework.http.MediaType.TEXT_PLAIN;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,7 +55,8 @@ public class CarControllerTests {
     CarServiceImp service;
 
     @MockBean
-    PersonServiceImpl personServiceImpl;
+    BulkImportService bulkImportService;
+
     ObjectMapper objectMapper = new ObjectMapper();
 
     Car car = Car.builder()
@@ -48,6 +65,8 @@ public class CarControllerTests {
             .manufacturer("Chevrolet")
             .model("Lacetti")
             .owner(1L)
+            .version(3L)
+            .syncSeq(12L)
             .build();
 
     String carJson = objectMapper.writeValueAsString(car);
@@ -81,6 +100,87 @@ public class CarControllerTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void findCarsPageReturnsNextLink() throws Exception {
+        doReturn(List.of(car)).when(service).getCars(null, 1);
+        mockMvc.perform(get("/cars").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[" + carJson + "]"))
+                .andExpect(header().string(LINK,
+                        "<http://localhost/cars?limit=1&after=KL1NF193E6K323675>; rel=\"next\""));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void findCarsLastPageHasNoNextLink() throws Exception {
+        doReturn(List.of(car)).when(service).getCars("KL1NF193E6K323674", 100);
+        mockMvc.perform(get("/cars").param("after", "KL1NF193E6K323674"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[" + carJson + "]"))
+                .andExpect(header().doesNotExist(LINK));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void findCarsByFilterIsPaged() throws Exception {
+        CarFilter filter = new CarFilter("Chevrolet", null, 1L, "AA");
+        doReturn(List.of(car)).when(service).search(filter, null, 1);
+        mockMvc.perform(get("/cars?manufacturer=Chevrolet&owner=1&numberPrefix=AA&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[" + carJson + "]"))
+                .andExpect(header().string(LINK, "<http://localhost/cars?manufacturer=Chevrolet&owner=1"
+                        + "&numberPrefix=AA&limit=1&after=KL1NF193E6K323675>; rel=\"next\""));
+        verify(service, never()).getCars();
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void findCarsPageRejectsTooLargeLimit() throws Exception {
+        mockMvc.perform(get("/cars").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    @SuppressWarnings("unchecked")
+    void streamAllCarsWritesNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Car> action = invocation.getArgument(0);
+            action.accept(car);
+            action.accept(car);
+            return null;
+        }).when(service).streamCars(any(Consumer.class));
+        MvcResult result = mockMvc.perform(get("/cars").accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_NDJSON))
+                .andExpect(content().string(carJson + "\n" + carJson + "\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void addCarsBulkReturnsReport() throws Exception {
+        BulkResult report = new BulkResult();
+        report.setAccepted(1);
+        doReturn(report).when(bulkImportService).importCars(any());
+        mockMvc.perform(post("/cars/bulk").contentType(APPLICATION_NDJSON).content(carJson + "\n" + carJson)
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"accepted\":1,\"rejected\":[]}"));
+        verify(bulkImportService).importCars(any());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void addCarsBulkRejectsUnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/cars/bulk").contentType(TEXT_PLAIN).content(carJson)
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void addCarTest() throws Exception {
@@ -94,14 +194,14 @@ public class CarControllerTests {
     @Test
     @WithMockUser(username = "user1")
     void addCarThrowsException() throws Exception {
-        doThrow(new ResponseStatusException(BAD_REQUEST, "This vin is already exists"))
+        doThrow(new ResponseStatusException(CONFLICT, "This vin is already exists"))
                 .when(service).add(car);
         mockMvc.perform(post("/cars").contentType(APPLICATION_JSON).content(carJson)
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(result -> assertTrue(result.getResolvedException() instanceof ResponseStatusException))
-                .andExpect(result -> assertEquals("400 BAD_REQUEST \"This vin is already exists\"",
+                .andExpect(result -> assertEquals("409 CONFLICT \"This vin is already exists\"",
                         Objects.requireNonNull(result.getResolvedException()).getMessage()))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -110,9 +210,19 @@ public class CarControllerTests {
         doReturn(car).when(service).findCar("KL1NF193E6K323675");
         mockMvc.perform(get("/cars/KL1NF193E6K323675"))
                 .andExpect(content().string(carJson))
+                .andExpect(header().string(ETAG, "\"12-3\""))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void findCarReturnsNotModifiedWhenTagMatches() throws Exception {
+        doReturn(car).when(service).findCar("KL1NF193E6K323675");
+        mockMvc.perform(get("/cars/KL1NF193E6K323675").header(IF_NONE_MATCH, "\"12-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void findCarThrowsException() throws Exception {
@@ -130,18 +240,30 @@ public class CarControllerTests {
     void updateCarTest() throws Exception {
         car.setNumber("XXXXX");
         String carJson = "{\"vin\":\"KL1NF193E6K323675\",\"number\":\"XXXXX\",\"manufacturer\":\"Chevrolet\",\"model\":\"Lacetti\",\"owner\":1}";
-        when(service.updateCar("KL1NF193E6K323675", car)).thenReturn(car);
+        when(service.updateCar("KL1NF193E6K323675", car, null)).thenReturn(car);
         mockMvc.perform(put("/cars/KL1NF193E6K323675").contentType(APPLICATION_JSON).content(carJson)
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(content().json(carJson))
+                .andExpect(header().string(ETAG, "\"12-3\""))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void updateCarPassesIfMatchToService() throws Exception {
+        doThrow(new ResponseStatusException(PRECONDITION_FAILED, "Car with vin KL1NF193E6K323675 has been modified"))
+                .when(service).updateCar("KL1NF193E6K323675", car, "\"2\"");
+        mockMvc.perform(put("/cars/KL1NF193E6K323675").contentType(APPLICATION_JSON).content(carJson)
+                        .header(IF_MATCH, "\"2\"")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void updateCarThrowsException() throws Exception {
         doThrow(new ResponseStatusException(NOT_FOUND, "No car with vin KL1NF193E6K323675 in DB"))
-                .when(service).updateCar("KL1NF193E6K323675", car);
+                .when(service).updateCar("KL1NF193E6K323675", car, null);
         mockMvc.perform(put("/cars/KL1NF193E6K323675").contentType(APPLICATION_JSON).content(carJson)
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(result -> assertTrue(result.getResolvedException() instanceof ResponseStatusException))
@@ -150,25 +272,127 @@ public class CarControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void upsertCarTest() throws Exception {
+        doReturn(car).when(service).upsert("KL1NF193E6K323675", car, null);
+        mockMvc.perform(put("/cars/KL1NF193E6K323675").param("upsert", "true")
+                        .contentType(APPLICATION_JSON).content(carJson)
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(carJson));
+        verify(service, never()).updateCar(any(), any(), any());
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void deleteCarTest() throws Exception {
         mockMvc.perform(delete("/cars/KL1NF193E6K323675")
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(status().isOk());
-        verify(service).remove("KL1NF193E6K323675");
+        verify(service).remove("KL1NF193E6K323675", null);
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void patchCarTest() throws Exception {
+        String body = "{\"number\":\"XXXXX\"}";
+        doReturn(car).when(service).patch("KL1NF193E6K323675", objectMapper.readTree(body), "\"12-3\"");
+        mockMvc.perform(patch("/cars/KL1NF193E6K323675").contentType(MergePatch.MEDIA_TYPE).content(body)
+                        .header(IF_MATCH, "\"12-3\"")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(carJson))
+                .andExpect(header().string(ETAG, "\"12-3\""));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void patchCarWithInvalidFieldReturnsProblem() throws Exception {
+        Car invalid = Car.builder().number("X").build();
+        Set<ConstraintViolation<Car>> violations = Validation.buildDefaultValidatorFactory().getValidator()
+                .validateProperty(invalid, "number");
+        doThrow(new ConstraintViolationException(violations)).when(service).patch(any(), any(), any());
+        mockMvc.perform(patch("/cars/KL1NF193E6K323675").contentType(MergePatch.MEDIA_TYPE).content("{\"number\":\"X\"}")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(APPLICATION_PROBLEM_JSON))
+                .andExpect(content().json("{\"status\":400,\"errors\":[{\"field\":\"number\","
+                        + "\"message\":\"Number should be between 2 and 10 characters length\"}]}"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void patchCarAsPlainJsonIsUnsupported() throws Exception {
+        mockMvc.perform(patch("/cars/KL1NF193E6K323675").contentType(APPLICATION_JSON).content("{\"number\":\"XXXXX\"}")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isUnsupportedMediaType());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void deleteCarsByVinTest() throws Exception {
+        doReturn(new BatchResult(2)).when(service).removeAll(List.of("KL1NF193E6K323675", "WVWZZZ1JZXW000001"));
+        mockMvc.perform(delete("/cars").param("vin", "KL1NF193E6K323675", "WVWZZZ1JZXW000001")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"affected\":2}", true));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void deleteCarsOfOwnerTest() throws Exception {
+        doReturn(new BatchResult(1)).when(service).removeByOwner(1L);
+        mockMvc.perform(delete("/cars").param("owner", "1")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"affected\":1}", true));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void patchCarsTest() throws Exception {
+        CarBatchUpdate update = new CarBatchUpdate(List.of("KL1NF193E6K323675"), null, "Gentra", 2L);
+        doReturn(new BatchResult(1)).when(service).updateAll(update);
+        mockMvc.perform(patch("/cars").contentType(APPLICATION_JSON)
+                        .content("{\"vins\":[\"KL1NF193E6K323675\"],\"model\":\"Gentra\",\"owner\":2}")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"affected\":1}", true));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void patchCarsWithoutVinsIsRejected() throws Exception {
+        mockMvc.perform(patch("/cars").contentType(APPLICATION_JSON)
+                        .content("{\"vins\":[],\"model\":\"Gentra\"}")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.errors[0].field").value("vins"));
+        verifyNoInteractions(service);
     }
 
     @Test
     @WithMockUser(username = "user1")
     void getCarsOwnerTest() throws Exception {
-        doReturn(person).when(personServiceImpl).findById(1L);
-        doReturn(car).when(service).findCar("KL1NF193E6K323675");
+        doReturn(person).when(service).findOwner("KL1NF193E6K323675");
         mockMvc.perform(get("/cars/KL1NF193E6K323675/owner"))
                 .andExpect(status().isOk())
                 .andExpect(content().string(personJson));
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void getCarsOwnerThrowsException() throws Exception {
+        doThrow(new ResponseStatusException(NOT_FOUND, "No car with vin WF0AXXWPDA3U77669 in DB"))
+                .when(service).findOwner("WF0AXXWPDA3U77669");
+        mockMvc.perform(get("/cars/WF0AXXWPDA3U77669/owner"))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof ResponseStatusException))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void validationTestWhenCarIsInValid() throws Exception {
@@ -177,8 +401,9 @@ public class CarControllerTests {
         mockMvc.perform(post("/cars").with(SecurityMockMvcRequestPostProcessors.csrf())
                         .content(inValidCarJson).contentType(APPLICATION_JSON))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(APPLICATION_JSON))
-                .andExpect(content().string("[\"VIN should be 17 characters length\"]"));
+                .andExpect(content().contentType(APPLICATION_PROBLEM_JSON))
+                .andExpect(content().json("{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,"
+                        + "\"errors\":[{\"field\":\"vin\",\"message\":\"VIN should be 17 characters length\"}]}", true));
     }
 
     @Test
@@ -0,0 +1,65 @@
+package com.spl.web;
+
+import com.spl.entity.ChangeEvent;
+import com.spl.repository.ChangeEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.spl.entity.ChangeEvent.ChangeType.UPDATED;
+import static com.spl.entity.ChangeEvent.EntityType.CAR;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.http.HttpHeaders.LINK;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ChangeController.class)
+class ChangeControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    ChangeEventRepository repository;
+
+    ChangeEvent change = ChangeEvent.builder()
+            .id(10L)
+            .position(7L)
+            .entity(CAR)
+            .entityId("KL1NF193E6K323675")
+            .type(UPDATED)
+            .createdAt(Instant.parse("2024-05-01T10:15:30Z"))
+            .build();
+
+    @Test
+    @WithMockUser(username = "user1")
+    void findChangesFromTheStartOfTheFeed() throws Exception {
+        mockMvc.perform(get("/changes"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"))
+                .andExpect(header().doesNotExist(LINK));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void findChangesPageReturnsNextLink() throws Exception {
+        doReturn(List.of(change)).when(repository).findByPositionGreaterThanOrderByPosition(6L, PageRequest.of(0, 1));
+        mockMvc.perform(get("/changes").param("since", "6").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"position\":7,\"entity\":\"CAR\",\"entityId\":\"KL1NF193E6K323675\","
+                        + "\"type\":\"UPDATED\",\"createdAt\":\"2024-05-01T10:15:30Z\"}]", true))
+                .andExpect(header().string(LINK, "<http://localhost/changes?limit=1&since=7>; rel=\"next\""));
+    }
+
+    @Test
+    void returnUnauthorizedWhenGetChanges() throws Exception {
+        mockMvc.perform(get("/changes"))
+                .andExpect(status().isUnauthorized());
+    }
+}
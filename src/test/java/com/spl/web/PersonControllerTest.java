@@ -3,6 +3,10 @@ package com.spl.web;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spl.entity.Person;
+import com.spl.service.BulkImportService;
+import com.spl.service.BulkResult;
+import com.spl.service.ETags;
+import com.spl.service.MergePatch;
 import com.spl.service.PersonServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,20 +15,26 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpHeaders.*;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
+import static org.springframework.http.MediaType.TEXT_PLAIN;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = PersonController.class)
 public class PersonControllerTest {
@@ -34,6 +44,9 @@ public class PersonControllerTest {
     @MockBean
     PersonServiceImpl service;
 
+    @MockBean
+    BulkImportService bulkImportService;
+
     ObjectMapper objectMapper = new ObjectMapper();
 
     Person person = Person.builder()
@@ -65,15 +78,59 @@ public class PersonControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void findPersonsPageReturnsNextLink() throws Exception {
+        doReturn(List.of(person)).when(service).findAll(null, 1);
+        mockMvc.perform(get("/persons").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[" + personJson + "]"))
+                .andExpect(header().string(LINK, "<http://localhost/persons?limit=1&after=1>; rel=\"next\""));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void findPersonsPageRejectsZeroLimit() throws Exception {
+        mockMvc.perform(get("/persons").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    @SuppressWarnings("unchecked")
+    void streamAllPersonsWritesNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Person> action = invocation.getArgument(0);
+            action.accept(person);
+            return null;
+        }).when(service).streamAll(any(Consumer.class));
+        MvcResult result = mockMvc.perform(get("/persons").accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(personJson + "\n"));
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void findPersonById() throws Exception {
         doReturn(person).when(service).findById(1L);
         mockMvc.perform(get("/persons/1"))
                 .andExpect(content().json(personJson))
+                .andExpect(header().exists(ETAG))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void findPersonByIdReturnsNotModifiedWhenTagMatches() throws Exception {
+        doReturn(person).when(service).findById(1L);
+        mockMvc.perform(get("/persons/1").header(IF_NONE_MATCH, ETags.of(person)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void findPersonByIdThrowsException() throws Exception {
@@ -86,6 +143,27 @@ public class PersonControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void addPersonsBulkReturnsReport() throws Exception {
+        BulkResult report = new BulkResult();
+        report.setAccepted(1);
+        doReturn(report).when(bulkImportService).importPersons(any());
+        mockMvc.perform(post("/persons/bulk").contentType(APPLICATION_NDJSON).content(personJson + "\n" + personJson)
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"accepted\":1,\"rejected\":[]}"));
+        verify(bulkImportService).importPersons(any());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void addPersonsBulkRejectsUnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/persons/bulk").contentType(TEXT_PLAIN).content(personJson)
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void addPersonTest() throws Exception {
@@ -101,18 +179,31 @@ public class PersonControllerTest {
     void updatePersonTest() throws Exception {
         person.setFirstName("Alexandr");
         personJson = "{\"id\":1,\"firstName\":\"Alexandr\",\"lastName\":\"Cole\",\"cars\":[]}";
-        doReturn(person).when(service).update(1L, person);
+        doReturn(person).when(service).update(1L, person, null);
         mockMvc.perform(put("/persons/1").contentType(APPLICATION_JSON).content(personJson)
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(content().json(personJson))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    void patchPersonTest() throws Exception {
+        String body = "{\"firstName\":\"Alexandr\"}";
+        person.setFirstName("Alexandr");
+        doReturn(person).when(service).patch(1L, objectMapper.readTree(body), null);
+        mockMvc.perform(patch("/persons/1").contentType(MergePatch.MEDIA_TYPE).content(body)
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"firstName\":\"Alexandr\",\"lastName\":\"Cole\",\"cars\":[]}"))
+                .andExpect(header().string(ETAG, ETags.of(person)));
+    }
+
     @Test
     @WithMockUser(username = "user1")
     void updatePersonThrowsException() throws Exception {
         doThrow(new ResponseStatusException(NOT_FOUND, "No person with id 2 in DB"))
-                .when(service).update(2L, person);
+                .when(service).update(2L, person, null);
         mockMvc.perform(put("/persons/2").contentType(APPLICATION_JSON).content(personJson)
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(result -> assertTrue(result.getResolvedException() instanceof ResponseStatusException))
@@ -127,7 +218,16 @@ public class PersonControllerTest {
         mockMvc.perform(delete("/persons/1")
                         .with(SecurityMockMvcRequestPostProcessors.csrf()))
                 .andExpect(status().isOk());
-        verify(service).remove(1L);
+        verify(service).remove(1L, null);
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    void deletePersonPassesIfMatchToService() throws Exception {
+        mockMvc.perform(delete("/persons/1").header(IF_MATCH, "\"4-00000001\"")
+                        .with(SecurityMockMvcRequestPostProcessors.csrf()))
+                .andExpect(status().isOk());
+        verify(service).remove(1L, "\"4-00000001\"");
     }
 
     @Test
@@ -146,8 +246,9 @@ public class PersonControllerTest {
         mockMvc.perform(post("/persons").with(SecurityMockMvcRequestPostProcessors.csrf())
                         .contentType(APPLICATION_JSON).content(inValidPersonJson))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(APPLICATION_JSON))
-                .andExpect(content().string("[\"First name should not be empty\"]"));
+                .andExpect(content().contentType(APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.errors[0].field").value("firstName"))
+                .andExpect(jsonPath("$.errors[0].message").value("First name should not be empty"));
     }
 
     @Test
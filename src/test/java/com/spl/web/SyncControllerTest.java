@@ -0,0 +1,58 @@
+package com.spl.web;
+
+import com.spl.sync.SyncRecord;
+import com.spl.sync.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SyncController.class)
+class SyncControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    SyncService service;
+
+    @Test
+    @WithMockUser(username = "user1")
+    void syncStreamsChangedRecordsAndTombstones() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<SyncRecord> action = invocation.getArgument(1);
+            action.accept(SyncRecord.builder().seq(8).type(SyncRecord.CAR).vin("KL1NF193E6K323675")
+                    .number("AA1111AA").manufacturer("Chevrolet").model("Lacetti").owner(1L).build());
+            action.accept(SyncRecord.builder().seq(9).type(SyncRecord.PERSON).id(2L).deleted(true).build());
+            return null;
+        }).when(service).changesSince(eq(7L), any());
+
+        MvcResult result = mockMvc.perform(get("/sync").param("since", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_NDJSON))
+                .andExpect(content().string("{\"seq\":8,\"type\":\"car\",\"vin\":\"KL1NF193E6K323675\","
+                        + "\"number\":\"AA1111AA\",\"manufacturer\":\"Chevrolet\",\"model\":\"Lacetti\",\"owner\":1}\n"
+                        + "{\"seq\":9,\"type\":\"person\",\"id\":2,\"deleted\":true}\n"));
+    }
+
+    @Test
+    void returnUnauthorizedWhenSync() throws Exception {
+        mockMvc.perform(get("/sync"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,59 @@
+package com.spl.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Runs only when the build itself runs on Java 21 or newer; on the Java 17 baseline it is reported as skipped.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "garage.threads.virtual=true")
+@EnabledIf(value = "supportsVirtualThreads", disabledReason = "garage.threads.virtual=true needs Java 21 or newer")
+class VirtualThreadConfigTest {
+
+    @Autowired
+    ServletWebServerApplicationContext context;
+
+    @Autowired
+    VirtualThreadConfig virtualThreadConfig;
+
+    @Autowired
+    ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    static boolean supportsVirtualThreads() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Test
+    void requestsAreServedByVirtualThreadExecutor() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        assertThat(webServer.getTomcat().getConnector().getProtocolHandler().getExecutor())
+                .isSameAs(virtualThreadConfig.executor());
+
+        ResponseEntity<String> response = restTemplate.withBasicAuth("user1", "password1")
+                .getForEntity("/api/cars", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+    }
+
+    @Test
+    void bootKeepsItsApplicationTaskExecutor() {
+        assertThat(context.getBeansOfType(ExecutorService.class)).isEmpty();
+        assertThat(applicationTaskExecutor.getThreadNamePrefix()).isEqualTo("task-");
+    }
+}